@@ -0,0 +1,81 @@
+package az.jahangir.benchmark;
+
+import az.jahangir.service.EvaluationBackend;
+import az.jahangir.service.FunctionParserService;
+import az.jahangir.service.expression.DualEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DerivativeBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    @Param({"x^2", "sin(x)*exp(-x^2)", "log(sin(x)^2)^tan(x)"})
+    private String expression;
+
+    private DoubleUnaryOperator function;
+    private DoubleUnaryOperator finiteDifference;
+    private DoubleUnaryOperator symbolic;
+    private DualEvaluator dual;
+    private final double[] valueAndDerivative = new double[2];
+    private final double[] xs = new double[SAMPLES];
+
+    @Setup
+    public void setUp() {
+        function = FunctionParserService.compile(expression, EvaluationBackend.COMPILED);
+        finiteDifference = FunctionParserService.finiteDifference(function, 1);
+        symbolic = FunctionParserService.derivative(expression, 1, EvaluationBackend.COMPILED);
+        dual = FunctionParserService.dual(expression);
+        for (int i = 0; i < SAMPLES; i++) {
+            xs[i] = -10 + 20.0 * i / SAMPLES;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void valueAndFiniteDifference(Blackhole blackhole) {
+        for (double x : xs) {
+            blackhole.consume(function.applyAsDouble(x));
+            blackhole.consume(finiteDifference.applyAsDouble(x));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void valueAndSymbolic(Blackhole blackhole) {
+        for (double x : xs) {
+            blackhole.consume(function.applyAsDouble(x));
+            blackhole.consume(symbolic.applyAsDouble(x));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void dualNumbers(Blackhole blackhole) {
+        for (double x : xs) {
+            dual.evaluate(x, valueAndDerivative);
+            blackhole.consume(valueAndDerivative[0]);
+            blackhole.consume(valueAndDerivative[1]);
+        }
+    }
+}
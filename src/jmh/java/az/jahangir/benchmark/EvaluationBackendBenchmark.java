@@ -0,0 +1,60 @@
+package az.jahangir.benchmark;
+
+import az.jahangir.service.EvaluationBackend;
+import az.jahangir.service.FunctionParserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBackendBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    @Param({"x^2", "x^(e^2)", "log(sin(x)^2)^tan(x)"})
+    private String expression;
+
+    @Param({"INTERPRETER", "COMPILED"})
+    private EvaluationBackend backend;
+
+    private DoubleUnaryOperator function;
+    private final double[] xs = new double[SAMPLES];
+
+    @Setup
+    public void setUp() {
+        function = FunctionParserService.compile(expression, backend);
+        for (int i = 0; i < SAMPLES; i++) {
+            xs[i] = -10 + 20.0 * i / SAMPLES;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void evaluate(Blackhole blackhole) {
+        for (double x : xs) {
+            try {
+                blackhole.consume(function.applyAsDouble(x));
+            } catch (RuntimeException ex) {
+                blackhole.consume(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package az.jahangir.benchmark;
+
+import az.jahangir.service.EvaluationBackend;
+import az.jahangir.service.FunctionParserService;
+import az.jahangir.service.FunctionSetService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"x^2", "x^(e^2)", "log(sin(x)^2)^tan(x)", "sin(x); cos(x); x^3 - 2*x"})
+    private String expression;
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String part : FunctionSetService.splitExpressions(expression)) {
+            blackhole.consume(FunctionParserService.parse(part));
+        }
+    }
+
+    @Benchmark
+    public void compileInterpreter(Blackhole blackhole) {
+        for (String part : FunctionSetService.splitExpressions(expression)) {
+            blackhole.consume(FunctionParserService.compile(part, EvaluationBackend.INTERPRETER));
+        }
+    }
+
+    @Benchmark
+    public void compileTree(Blackhole blackhole) {
+        for (String part : FunctionSetService.splitExpressions(expression)) {
+            blackhole.consume(FunctionParserService.compile(part, EvaluationBackend.COMPILED));
+        }
+    }
+
+    @Benchmark
+    public void createFunctionsWithDerivatives(Blackhole blackhole) {
+        blackhole.consume(FunctionSetService.createFunctions(expression, true, true));
+    }
+}
@@ -0,0 +1,83 @@
+package az.jahangir.benchmark;
+
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.service.FunctionParserService;
+import az.jahangir.service.FunctionSetService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.Color;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlottableFunctionBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    @Param({"x^2", "x^(e^2)", "log(sin(x)^2)^tan(x)"})
+    private String expression;
+
+    private PlottableFunction function;
+    private PlottableFunction finiteDifference;
+    private List<PlottableFunction> withDerivatives;
+    private final double[] xs = new double[SAMPLES];
+    private final double[] ys = new double[SAMPLES];
+
+    @Setup
+    public void setUp() {
+        function = FunctionSetService.createFunctions(expression, false, false).get(0);
+        finiteDifference = new PlottableFunction("f'(x)", Color.RED, FunctionParserService.finiteDifference(function.evaluator(), 1));
+        withDerivatives = FunctionSetService.createFunctions(expression, true, true);
+        for (int i = 0; i < SAMPLES; i++) {
+            xs[i] = -10 + 20.0 * i / SAMPLES;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void evaluatePointwise(Blackhole blackhole) {
+        for (double x : xs) {
+            blackhole.consume(function.evaluate(x));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public double[] evaluateBatch() {
+        function.evaluate(xs, ys);
+        return ys;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public double[] finiteDifferenceBatch() {
+        finiteDifference.evaluate(xs, ys);
+        return ys;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public double[] valueAndDerivativesBatch() {
+        for (PlottableFunction f : withDerivatives) {
+            f.evaluate(xs, ys);
+        }
+        return ys;
+    }
+}
@@ -0,0 +1,117 @@
+package az.jahangir.view;
+
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.SampleBuffer;
+import az.jahangir.model.TrackedPoints;
+import az.jahangir.model.Viewport;
+import az.jahangir.service.FunctionSetService;
+import az.jahangir.service.SamplingEngine;
+import az.jahangir.service.TileCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GraphRendererBenchmark {
+
+    private static final Viewport VIEWPORT = new Viewport(-10, 10, -10, 10);
+
+    @Param({"x^2", "sin(x)*exp(-x^2)", "tan(x)"})
+    private String expression;
+
+    @Param({"400x300", "800x600", "1920x1080"})
+    private String panelSize;
+
+    private int width;
+    private int height;
+    private double xScale;
+    private double yScale;
+    private int originX;
+    private int originY;
+    private List<PlottableFunction> functions;
+    private FrameRequest request;
+    private GraphRenderer renderer;
+    private SamplingEngine coldEngine;
+    private final List<SampleBuffer> buffers = new ArrayList<>();
+    private BufferedImage image;
+    private Graphics2D g2d;
+
+    @Setup
+    public void setUp() {
+        String[] size = panelSize.split("x");
+        width = Integer.parseInt(size[0]);
+        height = Integer.parseInt(size[1]);
+        xScale = (double) (width - 2 * GraphRenderer.PADDING) / VIEWPORT.xRange();
+        yScale = (double) (height - 2 * GraphRenderer.PADDING) / VIEWPORT.yRange();
+        originX = GraphRenderer.PADDING - (int) (VIEWPORT.xMin() * xScale);
+        originY = height - GraphRenderer.PADDING + (int) (VIEWPORT.yMin() * yScale);
+
+        functions = FunctionSetService.createFunctions(expression, true, false);
+        request = new FrameRequest(width, height, VIEWPORT, functions, List.of(), List.of(), new TrackedPoints());
+        renderer = new GraphRenderer();
+        coldEngine = new SamplingEngine(ForkJoinPool.commonPool(), new TileCache());
+        new SamplingEngine().sample(functions, VIEWPORT, width - 2 * GraphRenderer.PADDING, height - 2 * GraphRenderer.PADDING, buffers);
+
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearColdCache() {
+        coldEngine.getTileCache().clear();
+    }
+
+    @Benchmark
+    public BufferedImage drawSingleFunction() {
+        for (int i = 0; i < functions.size(); i++) {
+            renderer.drawSingleFunction(g2d, height, VIEWPORT, xScale, yScale, functions.get(i).color(), buffers.get(i));
+        }
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage drawGrid() {
+        renderer.drawGrid(g2d, width, height, VIEWPORT, originX, originY, xScale, yScale);
+        return image;
+    }
+
+    @Benchmark
+    public List<SampleBuffer> sampleCold() {
+        coldEngine.sample(functions, VIEWPORT, width - 2 * GraphRenderer.PADDING, height - 2 * GraphRenderer.PADDING, buffers);
+        return buffers;
+    }
+
+    @Benchmark
+    public GraphRenderer.Result renderFrame() {
+        return renderer.render(g2d, request, () -> false, false);
+    }
+}
@@ -1,25 +1,58 @@
 package az.jahangir;
 
 import az.jahangir.controller.GraphController;
+import az.jahangir.controller.HeadlessController;
 import az.jahangir.model.GraphModel;
+import az.jahangir.service.PlotCompiler;
 import az.jahangir.view.MainFrame;
+import az.jahangir.view.RenderMetrics;
 
 import javax.swing.*;
+import java.nio.file.Path;
 
 public class Main {
 
     public static void main(String[] args) {
+        if (HeadlessController.isRequested(args)) {
+            System.setProperty("java.awt.headless", "true");
+            System.exit(new HeadlessController(System.out, System.err).run(args));
+        }
 
+        StartupMode startupMode = StartupMode.fromSystemProperty();
         SwingUtilities.invokeLater(() -> {
             GraphModel model = new GraphModel();
 
             MainFrame view = new MainFrame(model);
+            RenderMetrics metrics = view.getGraphPanel().getMetrics();
+            view.getGraphPanel().whenFirstFramePainted(() -> firstFramePainted(metrics, startupMode));
 
             GraphController controller = new GraphController(model, view);
 
             controller.initController();
+            if (args.length == 1) {
+                controller.loadSamples(Path.of(args[0]));
+            }
 
             view.setVisible(true);
         });
     }
-}
\ No newline at end of file
+
+    private static void firstFramePainted(RenderMetrics metrics, StartupMode startupMode) {
+        if (startupMode != StartupMode.NORMAL) {
+            System.out.println("First frame after " + metrics.getTimeToFirstFrameMillis() + " ms");
+        }
+        if (startupMode == StartupMode.TRAIN) {
+            metrics.register();
+            PlotCompiler.warmUp();
+            System.exit(0);
+        }
+
+        Thread warmup = new Thread(() -> {
+            metrics.register();
+            PlotCompiler.warmUp();
+        }, "graph-warmup");
+        warmup.setDaemon(true);
+        warmup.setPriority(Thread.MIN_PRIORITY);
+        warmup.start();
+    }
+}
@@ -0,0 +1,18 @@
+package az.jahangir;
+
+public enum StartupMode {
+    NORMAL,
+    REPORT,
+    TRAIN;
+
+    public static final String PROPERTY = "graphplotter.startup";
+
+    public static StartupMode fromSystemProperty() {
+        String value = System.getProperty(PROPERTY, NORMAL.name());
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return NORMAL;
+        }
+    }
+}
@@ -1,32 +1,68 @@
 package az.jahangir.controller;
 
+import az.jahangir.model.CurveFeature;
+import az.jahangir.model.DataSeries;
 import az.jahangir.model.GraphModel;
 import az.jahangir.model.PlottableFunction;
-import az.jahangir.service.FunctionParserService;
+import az.jahangir.model.TrackedPoints;
+import az.jahangir.service.AnalysisRequest;
+import az.jahangir.service.AnalysisService;
+import az.jahangir.service.CompiledPlot;
+import az.jahangir.service.DataSeriesLoader;
+import az.jahangir.service.HoverSampler;
+import az.jahangir.service.PlotCompiler;
+import az.jahangir.service.PlotRequest;
+import az.jahangir.service.SampleFileHeader;
+import az.jahangir.service.SampleFileReader;
+import az.jahangir.service.SweepExporter;
+import az.jahangir.service.expression.DualEvaluator;
+import az.jahangir.view.GraphRenderer;
 import az.jahangir.view.MainFrame;
-import net.objecthunter.exp4j.Expression;
+import az.jahangir.view.RenderedFrame;
+import javax.swing.JFileChooser;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Point;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
-import java.awt.geom.Point2D;
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.Objects;
-import java.util.regex.Pattern;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 public class GraphController {
 
     private static final double ZOOM_FACTOR = 1.1;
-    private static final double H = 1e-7;
+    private static final long SAVED_SAMPLES = 1 << 20;
+    private static final double SNAP_RADIUS_PX = 8;
+    private static final int EDIT_DEBOUNCE_MILLIS = 150;
+    private static final int ANALYSIS_INTERVAL_MILLIS = 150;
+    private static final FileNameExtensionFilter SAMPLE_FILE_FILTER = new FileNameExtensionFilter("Graph samples (*.gps)", "gps");
 
     private final GraphModel model;
     private final MainFrame view;
     private Point lastPanPoint;
-
-    private static final Pattern SHORTHAND_POWER_PATTERN = Pattern.compile("\\(\\s*([a-zA-Z]+)\\s*\\^\\s*([0-9.]+)\\s*\\)");
+    private final HoverSampler hoverSampler = new HoverSampler();
+    private final StringBuilder trackingText = new StringBuilder();
+    private RenderedFrame trackedFrame;
+    private final AnalysisService analysisService = new AnalysisService();
+    private List<PlottableFunction> derivativeFunctions;
+    private PlotRequest derivativePlot;
+    private long analysisGeneration;
+    private final Timer analysisTimer = new Timer(ANALYSIS_INTERVAL_MILLIS, e -> requestAnalysis());
+    private final PlotCompiler plotCompiler = new PlotCompiler();
+    private final Timer editTimer = new Timer(EDIT_DEBOUNCE_MILLIS, e -> requestPlot(true));
+    private PlotRequest lastPlotRequest;
+    private long plotGeneration;
 
     public GraphController(GraphModel model, MainFrame view) {
         this.model = model;
@@ -36,14 +72,55 @@ public class GraphController {
     public void initController() {
         view.getPlotButton().addActionListener(e -> plotFunction());
         view.getFunctionField().addActionListener(e -> plotFunction());
+        editTimer.setRepeats(false);
+        analysisTimer.setRepeats(false);
+        view.getFunctionField().getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                editTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                editTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
         view.getResetButton().addActionListener(e -> model.reset() );
         view.getDerivativeCheckBox().addActionListener(e -> plotFunction());
+        view.getSecondDerivativeCheckBox().addActionListener(e -> plotFunction());
+        view.getFeaturesCheckBox().addActionListener(e -> requestAnalysis());
+        view.getSaveButton().addActionListener(e -> chooseSaveFile());
+        view.getOpenButton().addActionListener(e -> chooseOpenFile());
+        view.getImportButton().addActionListener(e -> chooseDataFile());
+        view.getClearDataButton().addActionListener(e -> {
+            model.clearDataSeries();
+            view.getClearDataButton().setEnabled(false);
+        });
 
         GraphPanelMouseAdapter mouseAdapter = new GraphPanelMouseAdapter();
         view.getGraphPanel().addMouseMotionListener(mouseAdapter);
         view.getGraphPanel().addMouseListener(mouseAdapter);
         view.getGraphPanel().addMouseWheelListener(this::handleMouseWheelZoom);
 
+        view.getGraphPanel().addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                requestAnalysis();
+            }
+        });
+        model.addPropertyChangeListener(evt -> {
+            if (GraphModel.FUNCTIONS_PROPERTY.equals(evt.getPropertyName())) {
+                model.clearFeaturePoints();
+                requestAnalysis();
+            } else if (GraphModel.VIEWPORT_PROPERTY.equals(evt.getPropertyName()) && !analysisTimer.isRunning()) {
+                analysisTimer.start();
+            }
+        });
+
         PanDragListener panListener = new PanDragListener();
         view.getGraphPanel().addMouseListener(panListener);
         view.getGraphPanel().addMouseMotionListener(panListener);
@@ -51,68 +128,237 @@ public class GraphController {
         plotFunction();
     }
 
-    private String preprocessFunctionString(String functionString) {
-        return SHORTHAND_POWER_PATTERN.matcher(functionString).replaceAll("($1$3)^$2");
+    private void plotFunction() {
+        editTimer.stop();
+        requestPlot(false);
     }
 
-    private void plotFunction() {
+    private void requestPlot(boolean live) {
+        PlotRequest request = new PlotRequest(view.getFunctionField().getText(),
+                view.getDerivativeCheckBox().isSelected(), view.getSecondDerivativeCheckBox().isSelected());
+        if (live && request.equals(lastPlotRequest)) return;
+
+        lastPlotRequest = request;
+        long requestGeneration = ++plotGeneration;
+        plotCompiler.request(request,
+                plot -> SwingUtilities.invokeLater(() -> {
+                    if (requestGeneration == plotGeneration) {
+                        applyPlot(plot);
+                    }
+                }),
+                error -> SwingUtilities.invokeLater(() -> {
+                    if (requestGeneration == plotGeneration) {
+                        showPlotError(error, live);
+                    }
+                }));
+    }
+
+    private void applyPlot(CompiledPlot plot) {
         model.clearTrackedPoints();
-        String rawFunctionString = view.getFunctionField().getText();
-        String processedFuncStr = preprocessFunctionString(rawFunctionString);
+        setDerivatives(plot.functions(), plot.request());
+        model.setCurves(plot.curves());
+        model.setFunctions(plot.functions(), plot.request().expression());
+        trackFunctions(plot.trackingEvaluator());
+
+        view.getStatusLabel().setText("Plot Successful. Hover for f(x) coordinates.");
+        view.getStatusLabel().setForeground(new Color(0, 128, 0));
+        view.getFunctionField().setBackground(Color.WHITE);
+    }
 
-        List<PlottableFunction> functionsToPlot = new ArrayList<>();
+    private void showPlotError(RuntimeException ex, boolean live) {
+        if (!live) {
+            model.clearTrackedPoints();
+            setDerivatives(null, null);
+            model.clearCurves();
+            model.clearFunctions();
+            trackFunctions(null);
+        }
+        view.getStatusLabel().setText("Error: " + ex.getMessage());
+        view.getStatusLabel().setForeground(Color.RED);
+        view.getFunctionField().setBackground(new Color(255, 210, 210));
+    }
 
-        try {
-            Expression f_x = FunctionParserService.parse(processedFuncStr);
+    public void loadSamples(Path path) {
+        showStatus("Loading " + path.getFileName() + "...", Color.BLACK);
+        new SwingWorker<SampleFileReader, Void>() {
+            @Override
+            protected SampleFileReader doInBackground() throws Exception {
+                return SampleFileReader.open(path);
+            }
 
-            functionsToPlot.add(new PlottableFunction(
-                    "f(x)",
-                    Color.BLUE,
-                    (x) -> {
-                        f_x.setVariable("x", x);
-                        return f_x.evaluate();
-                    }
-            ));
+            @Override
+            protected void done() {
+                try {
+                    SampleFileReader reader = get();
+                    SampleFileHeader header = reader.getHeader();
+                    List<PlottableFunction> curves = reader.toFunctions();
+                    model.clearTrackedPoints();
+                    view.getFunctionField().setText(header.expression());
+                    editTimer.stop();
+                    plotCompiler.cancel();
+                    plotGeneration++;
+                    lastPlotRequest = null;
+                    view.getFunctionField().setBackground(Color.WHITE);
+                    setDerivatives(null, null);
+                    model.clearCurves();
+                    model.setFunctions(curves, header.expression());
+                    trackFunctions(null);
+                    model.setViewport(header.xMin(), header.xMax(), model.getYMin(), model.getYMax());
+                    showStatus("Loaded " + curves.size() + " curve(s), " + header.rowCount() + " samples each, from " + path.getFileName(), new Color(0, 128, 0));
+                } catch (InterruptedException | ExecutionException ex) {
+                    showStatus("Error: could not load " + path.getFileName() + ": " + rootMessage(ex), Color.RED);
+                }
+            }
+        }.execute();
+    }
+
+    public void importData(Path path) {
+        showStatus("Importing " + path.getFileName() + "...", Color.BLACK);
+        new SwingWorker<List<DataSeries>, Void>() {
+            @Override
+            protected List<DataSeries> doInBackground() throws Exception {
+                return DataSeriesLoader.load(path);
+            }
 
-            if (view.getDerivativeCheckBox().isSelected()) {
-                functionsToPlot.add(new PlottableFunction(
-                        "f'(x)",
-                        Color.RED,
-                        (x) -> {
-                            f_x.setVariable("x", x + H);
-                            double y1 = f_x.evaluate();
-                            f_x.setVariable("x", x - H);
-                            double y2 = f_x.evaluate();
-                            return (y1 - y2) / (2 * H);
-                        }
-                ));
+            @Override
+            protected void done() {
+                try {
+                    List<DataSeries> series = get();
+                    model.setDataSeries(series);
+                    view.getClearDataButton().setEnabled(!series.isEmpty());
+                    long points = series.isEmpty() ? 0 : series.get(0).size();
+                    showStatus("Imported " + series.size() + " series, " + points + " points each, from " + path.getFileName(), new Color(0, 128, 0));
+                } catch (InterruptedException | ExecutionException ex) {
+                    showStatus("Error: could not import " + path.getFileName() + ": " + rootMessage(ex), Color.RED);
+                }
             }
+        }.execute();
+    }
 
-            model.setFunctions(functionsToPlot, rawFunctionString);
+    private void saveSamples(Path path) {
+        List<PlottableFunction> functions = model.getFunctions();
+        String expression = model.getRawUserInputFunction();
+        double xMin = model.getXMin();
+        double xMax = model.getXMax();
+        showStatus("Saving " + path.getFileName() + "...", Color.BLACK);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                new SweepExporter().exportBinary(functions, expression, xMin, xMax, SAVED_SAMPLES, path);
+                return null;
+            }
 
-            view.getStatusLabel().setText("Plot Successful. Hover for f(x) coordinates.");
-            view.getStatusLabel().setForeground(new Color(0, 128, 0));
-            view.getFunctionField().setBackground(Color.WHITE);
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    showStatus("Saved " + functions.size() + " curve(s) to " + path.getFileName(), new Color(0, 128, 0));
+                } catch (InterruptedException | ExecutionException ex) {
+                    showStatus("Error: could not save " + path.getFileName() + ": " + rootMessage(ex), Color.RED);
+                }
+            }
+        }.execute();
+    }
 
-        } catch (IllegalArgumentException ex) {
-            model.clearFunctions();
-            view.getStatusLabel().setText("Error: " + ex.getMessage());
-            view.getStatusLabel().setForeground(Color.RED);
-            view.getFunctionField().setBackground(new Color(255, 210, 210));
+    private void chooseSaveFile() {
+        if (model.getFunctions().isEmpty()) {
+            showStatus("Nothing to save: plot a function first", Color.RED);
+            return;
         }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(SAMPLE_FILE_FILTER);
+        if (chooser.showSaveDialog(view) != JFileChooser.APPROVE_OPTION) return;
+
+        Path path = chooser.getSelectedFile().toPath();
+        if (!path.getFileName().toString().endsWith(".gps")) {
+            path = path.resolveSibling(path.getFileName() + ".gps");
+        }
+        saveSamples(path);
     }
 
-    private void handleMouseWheelZoom(MouseWheelEvent e) {
-        double zoomDirection = e.getWheelRotation() < 0 ? ZOOM_FACTOR : 1 / ZOOM_FACTOR;
-        Point cursor = e.getPoint();
+    private void chooseOpenFile() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(SAMPLE_FILE_FILTER);
+        if (chooser.showOpenDialog(view) == JFileChooser.APPROVE_OPTION) {
+            loadSamples(chooser.getSelectedFile().toPath());
+        }
+    }
+
+    private void chooseDataFile() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Datasets (*.csv, *.gps)", "csv", "gps"));
+        if (chooser.showOpenDialog(view) == JFileChooser.APPROVE_OPTION) {
+            importData(chooser.getSelectedFile().toPath());
+        }
+    }
+
+    private void showStatus(String text, Color color) {
+        view.getStatusLabel().setText(text);
+        view.getStatusLabel().setForeground(color);
+    }
+
+    private static String rootMessage(Exception ex) {
+        Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause.getMessage();
+    }
+
+    private void setDerivatives(List<PlottableFunction> functions, PlotRequest plot) {
+        derivativeFunctions = functions;
+        derivativePlot = plot;
+    }
+
+    private void requestAnalysis() {
+        analysisTimer.stop();
+        List<PlottableFunction> functions = List.copyOf(model.getFunctions());
+        int plotWidth = view.getGraphPanel().getWidth() - 2 * GraphRenderer.PADDING;
+        long requestGeneration = ++analysisGeneration;
+        if (!view.getFeaturesCheckBox().isSelected() || functions.isEmpty() || plotWidth <= 0
+                || model.getAnchoredViewport().requiresPrecision()) {
+            analysisService.cancel();
+            model.clearFeaturePoints();
+            return;
+        }
 
-        double xScale = (double) (view.getGraphPanel().getWidth()) / (model.getXMax() - model.getXMin());
-        double yScale = (double) (view.getGraphPanel().getHeight()) / (model.getYMax() - model.getYMin());
+        boolean derived = functions.equals(derivativeFunctions);
+        AnalysisRequest request = new AnalysisRequest(functions, derived ? derivativePlot : null, model.getViewport(), plotWidth);
+        analysisService.request(request, features -> SwingUtilities.invokeLater(() -> {
+            if (requestGeneration == analysisGeneration) {
+                model.setFeaturePoints(features);
+            }
+        }));
+    }
 
-        double cursorX = model.getXMin() + cursor.x / xScale;
-        double cursorY = model.getYMin() - cursor.y / yScale;
+    private void trackFunctions(DualEvaluator trackingEvaluator) {
+        hoverSampler.setFunctions(model.getFunctions(), trackingEvaluator);
+        trackedFrame = null;
+    }
 
-        model.zoom(zoomDirection, cursorX, cursorY);
+    private static void appendFixed(StringBuilder out, double value) {
+        double magnitude = Math.abs(value);
+        if (!Double.isFinite(value) || magnitude >= 1e12) {
+            out.append(String.format("%.3f", value));
+            return;
+        }
+        long thousandths = Math.round(magnitude * 1000);
+        if (value < 0) out.append('-');
+        out.append(thousandths / 1000).append('.');
+        long fraction = thousandths % 1000;
+        if (fraction < 100) out.append('0');
+        if (fraction < 10) out.append('0');
+        out.append(fraction);
+    }
+
+    private void handleMouseWheelZoom(MouseWheelEvent e) {
+        double zoomDirection = e.getWheelRotation() < 0 ? ZOOM_FACTOR : 1 / ZOOM_FACTOR;
+        Point cursor = e.getPoint();
+        int padding = GraphRenderer.PADDING;
+        int graphWidth = view.getGraphPanel().getWidth() - 2 * padding;
+        int graphHeight = view.getGraphPanel().getHeight() - 2 * padding;
+        if (graphWidth <= 0 || graphHeight <= 0) return;
+
+        double xFraction = (double) (cursor.x - padding) / graphWidth;
+        double yFraction = (double) (graphHeight + padding - cursor.y) / graphHeight;
+        model.zoomAt(zoomDirection, xFraction, yFraction);
     }
 
     private class PanDragListener extends MouseAdapter {
@@ -134,8 +380,8 @@ public class GraphController {
 
             Point currentPoint = e.getPoint();
 
-            double dx = (double) (currentPoint.x - lastPanPoint.x) / view.getGraphPanel().getWidth() * (model.getXMax() - model.getXMin());
-            double dy = (double) (currentPoint.y - lastPanPoint.y) / view.getGraphPanel().getHeight() * (model.getYMax() - model.getYMin());
+            double dx = (double) (currentPoint.x - lastPanPoint.x) / view.getGraphPanel().getWidth() * model.getXRange();
+            double dy = (double) (currentPoint.y - lastPanPoint.y) / view.getGraphPanel().getHeight() * model.getYRange();
 
             model.pan(-dx, dy);
             lastPanPoint = currentPoint;
@@ -146,35 +392,53 @@ public class GraphController {
         @Override
         public void mouseMoved(MouseEvent e) {
             if (model.getFunctions().isEmpty()) return;
+            if (model.getAnchoredViewport().requiresPrecision()) {
+                model.clearTrackedPoints();
+                view.getStatusLabel().setText("Precision mode: hover tracking is off at this zoom depth.");
+                view.getStatusLabel().setForeground(Color.BLACK);
+                return;
+            }
 
             int pixelX = e.getX();
-            int padding = 25;
+            int padding = GraphRenderer.PADDING;
             int graphWidth = view.getGraphPanel().getWidth() - (2 * padding);
-            double mathX = model.getXMin() + (pixelX - (double) padding) / graphWidth * (model.getXMax() - model.getXMin());
-
-            List<Point2D.Double> newPoints = new ArrayList<>();
-            StringBuilder statusText = new StringBuilder();
-            statusText.append(String.format("x = %.3f", mathX));
+            double mathX = model.getXMin() + (pixelX - (double) padding) / graphWidth * model.getXRange();
 
-            for (PlottableFunction func : model.getFunctions()) {
-                try {
-                    double mathY = func.evaluate(mathX);
-                    newPoints.add(new Point2D.Double(mathX, mathY));
-                    statusText.append(String.format(" | %s: %.3f", func.name(), mathY));
-                } catch (Exception ex) {
-                    newPoints.add(null);
-                }
+            RenderedFrame frame = view.getGraphPanel().getFrame();
+            if (frame != null && frame != trackedFrame) {
+                hoverSampler.setSamples(frame.functions(), frame.samples());
+                trackedFrame = frame;
             }
+            double snapRadius = e.isShiftDown() ? 0 : SNAP_RADIUS_PX / graphWidth * model.getXRange();
+            hoverSampler.track(mathX, snapRadius);
+            model.setTrackedPoints(hoverSampler.getX(), hoverSampler.getValues(), hoverSampler.getCount(),
+                    hoverSampler.getFeature(), hoverSampler.getFeatureCurve());
 
-            model.setTrackedPoints(newPoints);
-            view.getStatusLabel().setText(statusText.toString());
+            view.getStatusLabel().setText(trackingStatus(model.getTrackedPoints()));
             view.getStatusLabel().setForeground(Color.BLUE);
         }
 
+        private String trackingStatus(TrackedPoints points) {
+            List<PlottableFunction> functions = model.getFunctions();
+            trackingText.setLength(0);
+            trackingText.append("x = ");
+            appendFixed(trackingText, points.getX());
+            for (int i = 0; i < points.getCount() && i < functions.size(); i++) {
+                trackingText.append(" | ").append(functions.get(i).name()).append(": ");
+                appendFixed(trackingText, points.y(i));
+            }
+            if (points.getFeature() != CurveFeature.NONE) {
+                trackingText.append(" | ").append(points.getFeature().label()).append(" of ")
+                        .append(functions.get(points.getFeatureCurve()).name());
+            }
+            return trackingText.toString();
+        }
+
         @Override
         public void mouseExited(MouseEvent e) {
             model.clearTrackedPoints();
-            if (!model.getRawUserInputFunction().isEmpty()) {
+            String expression = model.getRawUserInputFunction();
+            if (!Objects.isNull(expression) && !expression.isEmpty()) {
                 view.getStatusLabel().setText("Plot Successful. Hover for f(x) coordinates.");
                 view.getStatusLabel().setForeground(new Color(0, 128, 0));
             } else {
@@ -0,0 +1,156 @@
+package az.jahangir.controller;
+
+import az.jahangir.model.PlaneCurve;
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.TrackedPoints;
+import az.jahangir.model.Viewport;
+import az.jahangir.service.FunctionSetService;
+import az.jahangir.service.SweepExporter;
+import az.jahangir.view.FrameRequest;
+import az.jahangir.view.GraphRenderer;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class HeadlessController {
+
+    public static final String HEADLESS_FLAG = "--headless";
+
+    private static final String USAGE = """
+            Usage: --headless --expr <f(x)[;g(x)...]> --output <file> [options]
+              --format csv|binary|png   output format (default: csv)
+              --from <x> --to <x>       x range (default: -10 .. 10)
+              --samples <n>             number of samples for csv/binary (default: 1000)
+              --y-min <y> --y-max <y>   y range for png (default: -10 .. 10)
+              --width <px> --height <px> image size for png (default: 800 x 600)
+              --derivative              include f'(x)
+              --second-derivative       include f''(x)""";
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    public HeadlessController(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static boolean isRequested(String[] args) {
+        for (String arg : args) {
+            if (HEADLESS_FLAG.equals(arg)) return true;
+        }
+        return false;
+    }
+
+    public int run(String[] args) {
+        Map<String, String> options;
+        try {
+            options = parseArguments(args);
+        } catch (IllegalArgumentException ex) {
+            return usage(ex.getMessage());
+        }
+
+        String expression = options.get("--expr");
+        String output = options.get("--output");
+        if (Objects.isNull(expression) || Objects.isNull(output)) {
+            return usage("--expr and --output are required");
+        }
+
+        try {
+            String format = options.getOrDefault("--format", "csv");
+            double xMin = doubleOption(options, "--from", -10);
+            double xMax = doubleOption(options, "--to", 10);
+            if (!(xMax > xMin)) {
+                return usage("--to must be greater than --from");
+            }
+
+            List<PlottableFunction> functions = FunctionSetService.createFunctions(
+                    expression, options.containsKey("--derivative"), options.containsKey("--second-derivative"));
+            Path path = Path.of(output);
+
+            switch (format) {
+                case "csv" -> new SweepExporter().exportCsv(functions, xMin, xMax, longOption(options, "--samples", 1000), path);
+                case "binary" -> new SweepExporter().exportBinary(functions, expression, xMin, xMax, longOption(options, "--samples", 1000), path);
+                case "png" -> renderImage(functions, FunctionSetService.createCurves(expression), new Viewport(xMin, xMax, doubleOption(options, "--y-min", -10), doubleOption(options, "--y-max", 10)),
+                        (int) longOption(options, "--width", 800), (int) longOption(options, "--height", 600), path);
+                default -> {
+                    return usage("Unknown format: " + format);
+                }
+            }
+
+            out.println("Wrote " + path.toAbsolutePath());
+            return 0;
+        } catch (IllegalArgumentException ex) {
+            err.println("Error: " + ex.getMessage());
+            return 1;
+        } catch (IOException ex) {
+            err.println("Failed to write output: " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    private void renderImage(List<PlottableFunction> functions, List<PlaneCurve> curves, Viewport viewport, int width, int height, Path path) throws IOException {
+        if (width <= 2 * GraphRenderer.PADDING || height <= 2 * GraphRenderer.PADDING) {
+            throw new IllegalArgumentException("Image size must exceed " + 2 * GraphRenderer.PADDING + " px");
+        }
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            new GraphRenderer().render(g2d, new FrameRequest(width, height, viewport, functions, curves, List.of(), new TrackedPoints()), () -> false, false);
+        } finally {
+            g2d.dispose();
+        }
+        ImageIO.write(image, "png", path.toFile());
+    }
+
+    private static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case HEADLESS_FLAG -> { }
+                case "--derivative", "--second-derivative" -> options.put(arg, "");
+                case "--expr", "--output", "--format", "--from", "--to", "--samples", "--y-min", "--y-max", "--width", "--height" -> {
+                    if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + arg);
+                    options.put(arg, args[++i]);
+                }
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        return options;
+    }
+
+    private static double doubleOption(Map<String, String> options, String name, double defaultValue) {
+        String value = options.get(name);
+        if (Objects.isNull(value)) return defaultValue;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid number for " + name + ": " + value);
+        }
+    }
+
+    private static long longOption(Map<String, String> options, String name, long defaultValue) {
+        String value = options.get(name);
+        if (Objects.isNull(value)) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid integer for " + name + ": " + value);
+        }
+    }
+
+    private int usage(String message) {
+        err.println("Error: " + message);
+        err.println(USAGE);
+        return 2;
+    }
+}
@@ -0,0 +1,36 @@
+package az.jahangir.model;
+
+public record AnchoredViewport(double xOrigin, double yOrigin, Viewport offsets) {
+
+    public static final double PRECISION_RELATIVE_RANGE = 1e-10;
+
+    public static AnchoredViewport of(Viewport viewport) {
+        return new AnchoredViewport(0, 0, viewport);
+    }
+
+    public Viewport absolute() {
+        return new Viewport(xOrigin + offsets.xMin(), xOrigin + offsets.xMax(), yOrigin + offsets.yMin(), yOrigin + offsets.yMax());
+    }
+
+    public double xRange() {
+        return offsets.xRange();
+    }
+
+    public double yRange() {
+        return offsets.yRange();
+    }
+
+    public boolean requiresPrecision() {
+        return isNarrow(xOrigin, offsets.xMin(), offsets.xMax()) || isNarrow(yOrigin, offsets.yMin(), offsets.yMax());
+    }
+
+    public Viewport relativeTo(AnchoredViewport other) {
+        double dx = xOrigin - other.xOrigin;
+        double dy = yOrigin - other.yOrigin;
+        return new Viewport(dx + offsets.xMin(), dx + offsets.xMax(), dy + offsets.yMin(), dy + offsets.yMax());
+    }
+
+    private static boolean isNarrow(double origin, double min, double max) {
+        return max - min < PRECISION_RELATIVE_RANGE * Math.abs(origin + 0.5 * (min + max));
+    }
+}
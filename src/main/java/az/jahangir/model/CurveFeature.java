@@ -0,0 +1,20 @@
+package az.jahangir.model;
+
+public enum CurveFeature {
+    NONE(""),
+    ROOT("root"),
+    MINIMUM("minimum"),
+    MAXIMUM("maximum"),
+    INFLECTION("inflection point"),
+    INTERSECTION("intersection");
+
+    private final String label;
+
+    CurveFeature(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+}
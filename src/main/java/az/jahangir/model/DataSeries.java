@@ -0,0 +1,61 @@
+package az.jahangir.model;
+
+import lombok.Getter;
+
+import java.awt.Color;
+import java.nio.DoubleBuffer;
+
+public class DataSeries {
+
+    @Getter
+    private final String name;
+    @Getter
+    private final Color color;
+    @Getter
+    private final MinMaxPyramid pyramid;
+    private final DoubleBuffer xs;
+    private final DoubleBuffer ys;
+    private final int size;
+
+    public DataSeries(String name, Color color, DoubleBuffer xs, DoubleBuffer ys) {
+        if (xs.limit() != ys.limit()) {
+            throw new IllegalArgumentException("x and y columns must have the same length");
+        }
+        this.name = name;
+        this.color = color;
+        this.xs = xs;
+        this.ys = ys;
+        this.size = xs.limit();
+        this.pyramid = new MinMaxPyramid(ys);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double x(int index) {
+        return xs.get(index);
+    }
+
+    public double y(int index) {
+        return ys.get(index);
+    }
+
+    public int lowerBound(double x, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xs.get(mid) < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int lowerBound(double x) {
+        return lowerBound(x, 0, size);
+    }
+}
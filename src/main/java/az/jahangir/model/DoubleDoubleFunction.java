@@ -0,0 +1,7 @@
+package az.jahangir.model;
+
+@FunctionalInterface
+public interface DoubleDoubleFunction {
+
+    void apply(double hi, double lo, double[] out);
+}
@@ -0,0 +1,8 @@
+package az.jahangir.model;
+
+public record FeaturePoint(double x, double y, CurveFeature kind, int curve, int otherCurve) {
+
+    public FeaturePoint(double x, double y, CurveFeature kind, int curve) {
+        this(x, y, kind, curve, -1);
+    }
+}
@@ -1,7 +1,6 @@
 package az.jahangir.model;
 
 import lombok.Getter;
-import java.awt.geom.Point2D;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
@@ -14,21 +13,30 @@ public class GraphModel {
     public static final String TRACKING_PROPERTY = "tracking";
     public static final String VIEWPORT_PROPERTY = "viewport";
     public static final String FUNCTIONS_PROPERTY = "functions";
+    public static final String DATA_PROPERTY = "data";
+    public static final String FEATURES_PROPERTY = "features";
+    public static final String CURVES_PROPERTY = "curves";
 
     private static final double DEFAULT_MIN_X = -10;
     private static final double DEFAULT_MAX_X = 10;
     private static final double DEFAULT_MIN_Y = -10;
     private static final double DEFAULT_MAX_Y = 10;
+    private static final double MIN_RELATIVE_RANGE = 1e-26;
+    private static final double MIN_ABSOLUTE_RANGE = 1e-280;
+    private static final double REBASE_DISTANCE = 16;
 
     @Getter
     private String rawUserInputFunction;
-    @Getter
+    private double xOrigin, yOrigin;
     private double xMin, xMax, yMin, yMax;
 
     private final PropertyChangeSupport support;
 
-    private List<Point2D.Double> trackedPoints = new ArrayList<>();
+    private final TrackedPoints trackedPoints = new TrackedPoints();
     private List<PlottableFunction> functions = new ArrayList<>();
+    private List<PlaneCurve> curves = new ArrayList<>();
+    private List<DataSeries> dataSeries = new ArrayList<>();
+    private List<FeaturePoint> featurePoints = new ArrayList<>();
 
     public GraphModel() {
         this.support = new PropertyChangeSupport(this);
@@ -39,8 +47,40 @@ public class GraphModel {
         setViewport(DEFAULT_MIN_X, DEFAULT_MAX_X, DEFAULT_MIN_Y, DEFAULT_MAX_Y);
     }
 
-    public List<Point2D.Double> getTrackedPoints() {
-        return Collections.unmodifiableList(trackedPoints);
+    public Viewport getViewport() {
+        return getAnchoredViewport().absolute();
+    }
+
+    public AnchoredViewport getAnchoredViewport() {
+        return new AnchoredViewport(xOrigin, yOrigin, new Viewport(xMin, xMax, yMin, yMax));
+    }
+
+    public double getXMin() {
+        return xOrigin + xMin;
+    }
+
+    public double getXMax() {
+        return xOrigin + xMax;
+    }
+
+    public double getYMin() {
+        return yOrigin + yMin;
+    }
+
+    public double getYMax() {
+        return yOrigin + yMax;
+    }
+
+    public double getXRange() {
+        return xMax - xMin;
+    }
+
+    public double getYRange() {
+        return yMax - yMin;
+    }
+
+    public TrackedPoints getTrackedPoints() {
+        return trackedPoints;
     }
 
     public boolean isTracking() {
@@ -58,14 +98,61 @@ public class GraphModel {
         support.firePropertyChange(FUNCTIONS_PROPERTY, oldFunctions, this.functions);
     }
 
-    public void setTrackedPoints(List<Point2D.Double> points) {
-        support.firePropertyChange(TRACKING_PROPERTY, null, null);
-        this.trackedPoints = new ArrayList<>(points);
+    public List<PlaneCurve> getCurves() {
+        return Collections.unmodifiableList(curves);
+    }
+
+    public void setCurves(Collection<PlaneCurve> curves) {
+        var oldCurves = this.curves;
+        this.curves = new ArrayList<>(curves);
+        support.firePropertyChange(CURVES_PROPERTY, oldCurves, this.curves);
+    }
+
+    public void clearCurves() {
+        if (!curves.isEmpty()) {
+            setCurves(Collections.emptyList());
+        }
+    }
+
+    public List<DataSeries> getDataSeries() {
+        return Collections.unmodifiableList(dataSeries);
+    }
+
+    public void setDataSeries(Collection<DataSeries> dataSeries) {
+        var oldDataSeries = this.dataSeries;
+        this.dataSeries = new ArrayList<>(dataSeries);
+        support.firePropertyChange(DATA_PROPERTY, oldDataSeries, this.dataSeries);
+    }
+
+    public void clearDataSeries() {
+        setDataSeries(Collections.emptyList());
+    }
+
+    public List<FeaturePoint> getFeaturePoints() {
+        return Collections.unmodifiableList(featurePoints);
+    }
+
+    public void setFeaturePoints(Collection<FeaturePoint> featurePoints) {
+        var oldFeaturePoints = this.featurePoints;
+        this.featurePoints = new ArrayList<>(featurePoints);
+        support.firePropertyChange(FEATURES_PROPERTY, oldFeaturePoints, this.featurePoints);
+    }
+
+    public void clearFeaturePoints() {
+        if (!featurePoints.isEmpty()) {
+            setFeaturePoints(Collections.emptyList());
+        }
+    }
+
+    public void setTrackedPoints(double x, double[] values, int count, CurveFeature feature, int featureCurve) {
+        if (trackedPoints.update(x, values, count, feature, featureCurve)) {
+            support.firePropertyChange(TRACKING_PROPERTY, null, trackedPoints);
+        }
     }
 
     public void clearTrackedPoints() {
-        if (!trackedPoints.isEmpty()) {
-            setTrackedPoints(Collections.emptyList());
+        if (trackedPoints.clear()) {
+            support.firePropertyChange(TRACKING_PROPERTY, null, trackedPoints);
         }
     }
 
@@ -74,23 +161,67 @@ public class GraphModel {
     }
 
     public void setViewport(double xMin, double xMax, double yMin, double yMax) {
+        setAnchoredViewport(0, 0, xMin, xMax, yMin, yMax);
+    }
+
+    public void pan(double deltaX, double deltaY) {
+        setOffsets(xMin + deltaX, xMax + deltaX, yMin + deltaY, yMax + deltaY);
+    }
+
+    public void zoom(double factor, double centerX, double centerY) {
+        zoomAt(factor, (centerX - getXMin()) / getXRange(), (centerY - getYMin()) / getYRange());
+    }
+
+    public void zoomAt(double factor, double xFraction, double yFraction) {
+        double xRange = getXRange();
+        double yRange = getYRange();
+        double scale = 1 / factor;
+        if (factor > 1) {
+            double limit = Math.max(minimumRange(xOrigin, xMin, xMax) / xRange, minimumRange(yOrigin, yMin, yMax) / yRange);
+            scale = Math.max(scale, Math.min(1, limit));
+            if (scale == 1) return;
+        }
+        double newXMin = xMin + xFraction * xRange * (1 - scale);
+        double newYMin = yMin + yFraction * yRange * (1 - scale);
+        setOffsets(newXMin, newXMin + xRange * scale, newYMin, newYMin + yRange * scale);
+    }
+
+    private void setOffsets(double xMin, double xMax, double yMin, double yMax) {
+        double xShift = rebaseShift(xOrigin, xMin, xMax);
+        double yShift = rebaseShift(yOrigin, yMin, yMax);
+        double newXOrigin = xOrigin + xShift;
+        double newYOrigin = yOrigin + yShift;
+        double xError = roundingError(xOrigin, xShift, newXOrigin);
+        double yError = roundingError(yOrigin, yShift, newYOrigin);
+        setAnchoredViewport(newXOrigin, newYOrigin, (xMin - xShift) + xError, (xMax - xShift) + xError,
+                (yMin - yShift) + yError, (yMax - yShift) + yError);
+    }
+
+    private void setAnchoredViewport(double xOrigin, double yOrigin, double xMin, double xMax, double yMin, double yMax) {
+        var oldViewport = getAnchoredViewport();
+        this.xOrigin = xOrigin;
+        this.yOrigin = yOrigin;
         this.xMin = xMin;
         this.xMax = xMax;
         this.yMin = yMin;
         this.yMax = yMax;
-        support.firePropertyChange(VIEWPORT_PROPERTY, null, null);
+        support.firePropertyChange(VIEWPORT_PROPERTY, oldViewport, getAnchoredViewport());
     }
 
-    public void pan(double deltaX, double deltaY) {
-        setViewport(xMin + deltaX, xMax + deltaX, yMin + deltaY, yMax + deltaY);
+    private static double rebaseShift(double origin, double min, double max) {
+        double centre = 0.5 * (min + max);
+        double range = max - min;
+        boolean narrow = range < AnchoredViewport.PRECISION_RELATIVE_RANGE * Math.abs(origin + centre);
+        return narrow && Math.abs(centre) > REBASE_DISTANCE * range ? centre : 0;
     }
 
-    public void zoom(double factor, double centerX, double centerY) {
-        double newXMin = centerX - (centerX - xMin) / factor;
-        double newXMax = centerX + (xMax - centerX) / factor;
-        double newYMin = centerY - (centerY - yMin) / factor;
-        double newYMax = centerY + (yMax - centerY) / factor;
-        setViewport(newXMin, newXMax, newYMin, newYMax);
+    private static double roundingError(double a, double b, double sum) {
+        double bb = sum - a;
+        return (a - (sum - bb)) + (b - bb);
+    }
+
+    private static double minimumRange(double origin, double min, double max) {
+        return Math.max(MIN_RELATIVE_RANGE * Math.abs(origin + 0.5 * (min + max)), MIN_ABSOLUTE_RANGE);
     }
 
     public void addPropertyChangeListener(PropertyChangeListener pcl) {
@@ -0,0 +1,19 @@
+package az.jahangir.model;
+
+import java.awt.Color;
+import java.util.function.DoubleBinaryOperator;
+
+public record ImplicitCurve(String name, Color color, DoubleBinaryOperator function, IntervalBivariateFunction bounds) implements PlaneCurve {
+
+    public ImplicitCurve(String name, Color color, DoubleBinaryOperator function) {
+        this(name, color, function, null);
+    }
+
+    public boolean hasBounds() {
+        return bounds != null;
+    }
+
+    public double evaluate(double x, double y) {
+        return function.applyAsDouble(x, y);
+    }
+}
@@ -0,0 +1,44 @@
+package az.jahangir.model;
+
+public record Interval(double lo, double hi) {
+
+    public static final Interval EMPTY = new Interval(Double.NaN, Double.NaN);
+    public static final Interval ENTIRE = new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    public static Interval of(double a, double b) {
+        if (Double.isNaN(a) || Double.isNaN(b)) return EMPTY;
+        return a <= b ? new Interval(a, b) : new Interval(b, a);
+    }
+
+    public static Interval point(double value) {
+        return Double.isNaN(value) ? EMPTY : new Interval(value, value);
+    }
+
+    public boolean isEmpty() {
+        return Double.isNaN(lo);
+    }
+
+    public boolean isBounded() {
+        return !isEmpty() && Double.isFinite(lo) && Double.isFinite(hi);
+    }
+
+    public boolean isPoint() {
+        return lo == hi;
+    }
+
+    public boolean contains(double value) {
+        return lo <= value && value <= hi;
+    }
+
+    public double width() {
+        return hi - lo;
+    }
+
+    public boolean isBelow(double value) {
+        return hi < value;
+    }
+
+    public boolean isAbove(double value) {
+        return lo > value;
+    }
+}
@@ -0,0 +1,7 @@
+package az.jahangir.model;
+
+@FunctionalInterface
+public interface IntervalBivariateFunction {
+
+    Interval apply(Interval x, Interval y);
+}
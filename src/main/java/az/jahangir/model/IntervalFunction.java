@@ -0,0 +1,7 @@
+package az.jahangir.model;
+
+@FunctionalInterface
+public interface IntervalFunction {
+
+    Interval apply(double lo, double hi);
+}
@@ -0,0 +1,132 @@
+package az.jahangir.model;
+
+import java.nio.DoubleBuffer;
+
+public class MinMaxPyramid {
+
+    public static final int FANOUT_BITS = 6;
+    public static final int FANOUT = 1 << FANOUT_BITS;
+
+    public static final int MIN = 0;
+    public static final int MAX = 1;
+    public static final int GAP = 2;
+
+    private final DoubleBuffer ys;
+    private final int size;
+    private final int[][] minIndex;
+    private final int[][] maxIndex;
+    private final double[][] minValue;
+    private final double[][] maxValue;
+    private final boolean[][] gaps;
+
+    private int queryMin;
+    private int queryMax;
+    private double queryMinValue;
+    private double queryMaxValue;
+    private boolean queryGap;
+
+    public MinMaxPyramid(DoubleBuffer ys) {
+        this.ys = ys;
+        this.size = ys.limit();
+
+        int levels = 0;
+        for (long blocks = size >> FANOUT_BITS; blocks > 0; blocks >>= FANOUT_BITS) {
+            levels++;
+        }
+        this.minIndex = new int[levels][];
+        this.maxIndex = new int[levels][];
+        this.minValue = new double[levels][];
+        this.maxValue = new double[levels][];
+        this.gaps = new boolean[levels][];
+
+        for (int level = 0; level < levels; level++) {
+            int blocks = (level == 0 ? size : minIndex[level - 1].length) >> FANOUT_BITS;
+            minIndex[level] = new int[blocks];
+            maxIndex[level] = new int[blocks];
+            minValue[level] = new double[blocks];
+            maxValue[level] = new double[blocks];
+            gaps[level] = new boolean[blocks];
+            for (int block = 0; block < blocks; block++) {
+                resetQuery();
+                scan(level - 1, block << FANOUT_BITS, (block + 1) << FANOUT_BITS);
+                minIndex[level][block] = queryMin;
+                maxIndex[level][block] = queryMax;
+                minValue[level][block] = queryMinValue;
+                maxValue[level][block] = queryMaxValue;
+                gaps[level][block] = queryGap;
+            }
+        }
+    }
+
+    public synchronized void query(int from, int to, int[] result) {
+        resetQuery();
+
+        int level = -1;
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int alignedLow = ((low + FANOUT - 1) >> FANOUT_BITS) << FANOUT_BITS;
+            int alignedHigh = (high >> FANOUT_BITS) << FANOUT_BITS;
+            if (level + 1 >= minIndex.length || alignedLow >= alignedHigh) {
+                scan(level, low, high);
+                break;
+            }
+            scan(level, low, alignedLow);
+            scan(level, alignedHigh, high);
+            low = alignedLow >> FANOUT_BITS;
+            high = alignedHigh >> FANOUT_BITS;
+            level++;
+        }
+
+        result[MIN] = queryMin;
+        result[MAX] = queryMax;
+        result[GAP] = queryGap ? 1 : 0;
+    }
+
+    private void resetQuery() {
+        queryMin = -1;
+        queryMax = -1;
+        queryMinValue = Double.POSITIVE_INFINITY;
+        queryMaxValue = Double.NEGATIVE_INFINITY;
+        queryGap = false;
+    }
+
+    private void scan(int level, int from, int to) {
+        if (level < 0) {
+            for (int i = from; i < to; i++) {
+                double y = ys.get(i);
+                if (Double.isNaN(y)) {
+                    queryGap = true;
+                    continue;
+                }
+                if (queryMin < 0 || y < queryMinValue) {
+                    queryMin = i;
+                    queryMinValue = y;
+                }
+                if (queryMax < 0 || y > queryMaxValue) {
+                    queryMax = i;
+                    queryMaxValue = y;
+                }
+            }
+            return;
+        }
+
+        int[] minIndices = minIndex[level];
+        int[] maxIndices = maxIndex[level];
+        double[] minValues = minValue[level];
+        double[] maxValues = maxValue[level];
+        boolean[] blockGaps = gaps[level];
+        for (int block = from; block < to; block++) {
+            queryGap |= blockGaps[block];
+            if (minIndices[block] < 0) continue;
+            if (queryMin < 0 || minValues[block] < queryMinValue) {
+                queryMin = minIndices[block];
+                queryMinValue = minValues[block];
+            }
+            if (queryMax < 0 || maxValues[block] > queryMaxValue) {
+                queryMax = maxIndices[block];
+                queryMaxValue = maxValues[block];
+            }
+        }
+    }
+}
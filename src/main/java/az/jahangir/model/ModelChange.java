@@ -0,0 +1,27 @@
+package az.jahangir.model;
+
+public enum ModelChange {
+    VIEWPORT(GraphModel.VIEWPORT_PROPERTY),
+    FUNCTIONS(GraphModel.FUNCTIONS_PROPERTY),
+    CURVES(GraphModel.CURVES_PROPERTY),
+    DATA(GraphModel.DATA_PROPERTY),
+    TRACKING(GraphModel.TRACKING_PROPERTY),
+    FEATURES(GraphModel.FEATURES_PROPERTY);
+
+    private final String propertyName;
+
+    ModelChange(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    public boolean affectsCurves() {
+        return this != TRACKING && this != FEATURES;
+    }
+
+    public static ModelChange fromProperty(String propertyName) {
+        for (ModelChange change : values()) {
+            if (change.propertyName.equals(propertyName)) return change;
+        }
+        throw new IllegalArgumentException("Unknown model property: " + propertyName);
+    }
+}
@@ -0,0 +1,17 @@
+package az.jahangir.model;
+
+import java.util.Set;
+
+public record ModelDelta(Set<ModelChange> changes) {
+
+    public ModelDelta {
+        changes = Set.copyOf(changes);
+    }
+
+    public boolean affectsCurves() {
+        for (ModelChange change : changes) {
+            if (change.affectsCurves()) return true;
+        }
+        return false;
+    }
+}
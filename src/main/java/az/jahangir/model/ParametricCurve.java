@@ -0,0 +1,33 @@
+package az.jahangir.model;
+
+import java.awt.Color;
+import java.util.function.DoubleUnaryOperator;
+
+public record ParametricCurve(String name, Color color, DoubleUnaryOperator x, DoubleUnaryOperator y, PointFunction point,
+                              double tMin, double tMax) implements PlaneCurve {
+
+    public ParametricCurve {
+        if (!(tMin < tMax) || !Double.isFinite(tMin) || !Double.isFinite(tMax)) {
+            throw new IllegalArgumentException("Parameter range must be finite and increasing: [" + tMin + ", " + tMax + "]");
+        }
+    }
+
+    public ParametricCurve(String name, Color color, DoubleUnaryOperator x, DoubleUnaryOperator y, double tMin, double tMax) {
+        this(name, color, x, y, (t, out) -> {
+            out[0] = x.applyAsDouble(t);
+            out[1] = y.applyAsDouble(t);
+        }, tMin, tMax);
+    }
+
+    public static ParametricCurve polar(String name, Color color, DoubleUnaryOperator radius, double thetaMin, double thetaMax) {
+        return new ParametricCurve(name, color,
+                theta -> radius.applyAsDouble(theta) * Math.cos(theta),
+                theta -> radius.applyAsDouble(theta) * Math.sin(theta),
+                (theta, out) -> {
+                    double r = radius.applyAsDouble(theta);
+                    out[0] = r * Math.cos(theta);
+                    out[1] = r * Math.sin(theta);
+                },
+                thetaMin, thetaMax);
+    }
+}
@@ -0,0 +1,10 @@
+package az.jahangir.model;
+
+import java.awt.Color;
+
+public sealed interface PlaneCurve permits ParametricCurve, ImplicitCurve {
+
+    String name();
+
+    Color color();
+}
@@ -1,11 +1,46 @@
 package az.jahangir.model;
 
 import java.awt.Color;
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
-public record PlottableFunction(String name, Color color, Function<Double, Double> evaluator) {
+public record PlottableFunction(String name, Color color, DoubleUnaryOperator evaluator, IntervalFunction bounds,
+                                DoubleDoubleFunction precise) {
 
-    public Double evaluate(Double x) {
-        return evaluator.apply(x);
+    public PlottableFunction(String name, Color color, DoubleUnaryOperator evaluator) {
+        this(name, color, evaluator, null, null);
     }
-}
\ No newline at end of file
+
+    public PlottableFunction(String name, Color color, DoubleUnaryOperator evaluator, IntervalFunction bounds) {
+        this(name, color, evaluator, bounds, null);
+    }
+
+    public boolean hasBounds() {
+        return bounds != null;
+    }
+
+    public boolean hasPrecise() {
+        return precise != null;
+    }
+
+    public double evaluate(double x) {
+        return evaluator.applyAsDouble(x);
+    }
+
+    public void evaluate(double[] xs, double[] ys, int count) {
+        evaluate(xs, ys, 0, count);
+    }
+
+    public void evaluate(double[] xs, double[] ys, int from, int to) {
+        for (int i = from; i < to; i++) {
+            try {
+                ys[i] = evaluator.applyAsDouble(xs[i]);
+            } catch (RuntimeException ex) {
+                ys[i] = Double.NaN;
+            }
+        }
+    }
+
+    public void evaluate(double[] xs, double[] ys) {
+        evaluate(xs, ys, Math.min(xs.length, ys.length));
+    }
+}
@@ -0,0 +1,7 @@
+package az.jahangir.model;
+
+@FunctionalInterface
+public interface PointFunction {
+
+    void apply(double t, double[] out);
+}
@@ -0,0 +1,54 @@
+package az.jahangir.model;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+public class SampleBuffer {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    @Getter
+    private double[] xs;
+    @Getter
+    private double[] ys;
+    @Getter
+    private int count;
+
+    public SampleBuffer() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public SampleBuffer(int initialCapacity) {
+        this.xs = new double[Math.max(1, initialCapacity)];
+        this.ys = new double[Math.max(1, initialCapacity)];
+    }
+
+    public int capacity() {
+        return xs.length;
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public void append(double x, double y) {
+        if (count == xs.length) {
+            xs = Arrays.copyOf(xs, count * 2);
+            ys = Arrays.copyOf(ys, count * 2);
+        }
+        xs[count] = x;
+        ys[count] = y;
+        count++;
+    }
+
+    public void appendBreak(double x) {
+        append(x, Double.NaN);
+    }
+
+    public void appendAll(SampleBuffer other) {
+        for (int i = 0; i < other.count; i++) {
+            append(other.xs[i], other.ys[i]);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package az.jahangir.model;
+
+import java.nio.DoubleBuffer;
+import java.util.function.DoubleUnaryOperator;
+
+public class SampledCurve implements DoubleUnaryOperator {
+
+    private final double xMin;
+    private final double step;
+    private final int lastIndex;
+    private final DoubleBuffer ys;
+
+    public SampledCurve(double xMin, double step, DoubleBuffer ys) {
+        this.xMin = xMin;
+        this.step = step;
+        this.lastIndex = ys.limit() - 1;
+        this.ys = ys;
+    }
+
+    public int size() {
+        return lastIndex + 1;
+    }
+
+    @Override
+    public double applyAsDouble(double x) {
+        double position = (x - xMin) / step;
+        if (!(position >= 0 && position <= lastIndex)) return Double.NaN;
+
+        int index = (int) position;
+        if (index == lastIndex) return ys.get(index);
+
+        double y0 = ys.get(index);
+        double y1 = ys.get(index + 1);
+        double t = position - index;
+        return y0 + (y1 - y0) * t;
+    }
+}
@@ -0,0 +1,52 @@
+package az.jahangir.model;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+public class TrackedPoints {
+
+    @Getter
+    private double x = Double.NaN;
+    @Getter
+    private int count;
+    @Getter
+    private CurveFeature feature = CurveFeature.NONE;
+    @Getter
+    private int featureCurve = -1;
+    private double[] ys = new double[0];
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public double y(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException(index);
+        return ys[index];
+    }
+
+    public boolean update(double x, double[] values, int count, CurveFeature feature, int featureCurve) {
+        if (this.count == count && Double.compare(this.x, x) == 0 && this.feature == feature && this.featureCurve == featureCurve
+                && Arrays.equals(ys, 0, count, values, 0, count)) {
+            return false;
+        }
+        if (ys.length < count) {
+            ys = new double[count];
+        }
+        System.arraycopy(values, 0, ys, 0, count);
+        this.x = x;
+        this.count = count;
+        this.feature = feature;
+        this.featureCurve = featureCurve;
+        return true;
+    }
+
+    public boolean clear() {
+        if (count == 0) return false;
+        count = 0;
+        x = Double.NaN;
+        feature = CurveFeature.NONE;
+        featureCurve = -1;
+        return true;
+    }
+}
@@ -0,0 +1,12 @@
+package az.jahangir.model;
+
+public record Viewport(double xMin, double xMax, double yMin, double yMax) {
+
+    public double xRange() {
+        return xMax - xMin;
+    }
+
+    public double yRange() {
+        return yMax - yMin;
+    }
+}
@@ -0,0 +1,188 @@
+package az.jahangir.service;
+
+import az.jahangir.model.Interval;
+import az.jahangir.model.IntervalFunction;
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.SampleBuffer;
+import lombok.Getter;
+
+public class AdaptiveSampler {
+
+    private static final double TOLERANCE_PX = 0.5;
+    private static final double MIN_STEP_PX = 1.0 / 16;
+    private static final int MAX_DEPTH = 16;
+    private static final double JUMP_THRESHOLD_PX = 4;
+    private static final double CONTINUOUS_SHRINK_RATIO = 0.75;
+    private static final int DISCONTINUITY_PROBES = 12;
+    private static final int DOMAIN_EDGE_PROBES = 24;
+
+    private final PlottableFunction function;
+    private final IntervalFunction bounds;
+    private final double yMin;
+    private final double yMax;
+    private final double xScale;
+    private final double yScale;
+    private SampleBuffer out;
+    private int budget;
+    private boolean truncated;
+    private double primedX = Double.NaN;
+    private double primedValue;
+    @Getter
+    private int evaluations;
+
+    public AdaptiveSampler(PlottableFunction function, double yMin, double yMax, double xScale, double yScale, int budget) {
+        this.function = function;
+        this.bounds = function.bounds();
+        this.yMin = yMin;
+        this.yMax = yMax;
+        this.xScale = xScale;
+        this.yScale = yScale;
+        this.budget = budget;
+    }
+
+    public boolean refine(double a, double fa, double b, double fb, SampleBuffer interior) {
+        out = interior;
+        truncated = false;
+        interior.clear();
+        refine(a, fa, b, fb, 0);
+        return !truncated;
+    }
+
+    public boolean refine(double a, double fa, double b, double fb, double fm, SampleBuffer interior) {
+        primedX = 0.5 * (a + b);
+        primedValue = fm;
+        boolean complete = refine(a, fa, b, fb, interior);
+        primedX = Double.NaN;
+        return complete;
+    }
+
+    private void refine(double a, double fa, double b, double fb, int depth) {
+        boolean finiteA = Double.isFinite(fa);
+        boolean finiteB = Double.isFinite(fb);
+        if (!finiteA && !finiteB) return;
+        if (finiteA != finiteB) {
+            traceDomainEdge(a, fa, b, fb);
+            return;
+        }
+
+        double m = 0.5 * (a + b);
+        if (budget <= 0) {
+            truncated = true;
+            return;
+        }
+        if (bounds != null && isOffscreenOnOneSide(fa, fb) && isProvablyOffscreen(a, b)) {
+            truncated = true;
+            return;
+        }
+        if (depth >= MAX_DEPTH || (b - a) * xScale < MIN_STEP_PX) {
+            if (isDiscontinuous(a, fa, b, fb)) {
+                out.appendBreak(m);
+            }
+            return;
+        }
+
+        double fm = evaluate(m);
+        if (Double.isFinite(fm)) {
+            if (bounds == null && isOffscreenOnOneSide(fa, fm, fb)) {
+                truncated = true;
+                return;
+            }
+            double deviation = Math.abs(fm - 0.5 * (fa + fb)) * yScale;
+            if (deviation <= TOLERANCE_PX) return;
+        }
+
+        refine(a, fa, m, fm, depth + 1);
+        out.append(m, fm);
+        refine(m, fm, b, fb, depth + 1);
+    }
+
+    private boolean isOffscreenOnOneSide(double fa, double fb) {
+        return (fa > yMax && fb > yMax) || (fa < yMin && fb < yMin);
+    }
+
+    private boolean isOffscreenOnOneSide(double fa, double fm, double fb) {
+        return (fa > yMax && fm > yMax && fb > yMax) || (fa < yMin && fm < yMin && fb < yMin);
+    }
+
+    private boolean isProvablyOffscreen(double a, double b) {
+        Interval range = boundsOver(a, b);
+        return range.isEmpty() || range.isBelow(yMin) || range.isAbove(yMax);
+    }
+
+    private Interval boundsOver(double a, double b) {
+        budget--;
+        try {
+            return bounds.apply(a, b);
+        } catch (RuntimeException ex) {
+            return Interval.ENTIRE;
+        }
+    }
+
+    private boolean isDiscontinuous(double a, double fa, double b, double fb) {
+        double jump = Math.abs(fb - fa) * yScale;
+        if (jump <= JUMP_THRESHOLD_PX) return false;
+        if (bounds != null && !boundsOver(a, b).isBounded()) return true;
+
+        for (int i = 0; i < DISCONTINUITY_PROBES; i++) {
+            if (budget <= 0) {
+                truncated = true;
+                return false;
+            }
+            double m = 0.5 * (a + b);
+            double fm = evaluate(m);
+            if (!Double.isFinite(fm)) return true;
+
+            double leftJump = Math.abs(fm - fa) * yScale;
+            double rightJump = Math.abs(fb - fm) * yScale;
+            double largerJump = Math.max(leftJump, rightJump);
+            if (largerJump < CONTINUOUS_SHRINK_RATIO * jump) return false;
+
+            if (leftJump >= rightJump) {
+                b = m;
+                fb = fm;
+            } else {
+                a = m;
+                fa = fm;
+            }
+            jump = largerJump;
+        }
+        return true;
+    }
+
+    private void traceDomainEdge(double a, double fa, double b, double fb) {
+        boolean finiteOnLeft = Double.isFinite(fa);
+        double finiteX = finiteOnLeft ? a : b;
+        double finiteY = finiteOnLeft ? fa : fb;
+        double otherX = finiteOnLeft ? b : a;
+
+        for (int i = 0; i < DOMAIN_EDGE_PROBES && budget > 0; i++) {
+            if (Math.abs(otherX - finiteX) * xScale < MIN_STEP_PX / 16) break;
+            double m = 0.5 * (finiteX + otherX);
+            double fm = evaluate(m);
+            if (Double.isFinite(fm)) {
+                finiteX = m;
+                finiteY = fm;
+            } else {
+                otherX = m;
+            }
+        }
+
+        if (finiteX != (finiteOnLeft ? a : b)) {
+            out.append(finiteX, finiteY);
+        }
+    }
+
+    public double evaluate(double x) {
+        budget--;
+        if (x == primedX) {
+            primedX = Double.NaN;
+            return primedValue;
+        }
+        evaluations++;
+        try {
+            return function.evaluate(x);
+        } catch (RuntimeException ex) {
+            return Double.NaN;
+        }
+    }
+}
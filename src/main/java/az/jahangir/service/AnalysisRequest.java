@@ -0,0 +1,9 @@
+package az.jahangir.service;
+
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.Viewport;
+
+import java.util.List;
+
+public record AnalysisRequest(List<PlottableFunction> functions, PlotRequest plot, Viewport viewport, int samples) {
+}
@@ -0,0 +1,349 @@
+package az.jahangir.service;
+
+import az.jahangir.model.CurveFeature;
+import az.jahangir.model.FeaturePoint;
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.Viewport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
+
+public class AnalysisService {
+
+    public static final long FRAME_BUDGET_NANOS = 16_000_000L;
+
+    private static final int MAX_ITERATIONS = 100;
+    private static final int MAX_FEATURES = 4096;
+    private static final int BRACKETS_PER_TASK = 32;
+    private static final int STRIP_POINTS = 128;
+    private static final double ZERO_TOLERANCE = 1e-9;
+
+    private final ForkJoinPool pool;
+    private final ExecutorService executor;
+    private final AtomicLong generation = new AtomicLong();
+    private Future<?> inFlight;
+    private PlotRequest derivedPlot;
+    private Derivatives derivatives = Derivatives.NONE;
+
+    public AnalysisService() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public AnalysisService(ForkJoinPool pool) {
+        this.pool = pool;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "graph-analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void request(AnalysisRequest request, Consumer<List<FeaturePoint>> consumer) {
+        long requestGeneration = generation.incrementAndGet();
+        if (inFlight != null && !inFlight.isDone()) {
+            inFlight.cancel(false);
+        }
+        inFlight = executor.submit(() -> analyze(request, () -> generation.get() != requestGeneration, consumer));
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+        if (inFlight != null) {
+            inFlight.cancel(false);
+        }
+    }
+
+    public List<FeaturePoint> analyze(AnalysisRequest request, BooleanSupplier cancelled, Consumer<List<FeaturePoint>> consumer) {
+        List<PlottableFunction> functions = request.functions();
+        int samples = Math.max(2, request.samples());
+        if (functions.isEmpty()) {
+            consumer.accept(List.of());
+            return List.of();
+        }
+
+        Derivatives derived = derivatives(request.plot());
+        if (cancelled.getAsBoolean()) return List.of();
+
+        Grid grid = new Grid(request.viewport(), samples, functions.size());
+        List<PlottableFunction> columns = new ArrayList<>(functions);
+        for (int c = 0; c < functions.size(); c++) {
+            PlottableFunction function = functions.get(c);
+            grid.first[c] = derivative(derived.first(), c, function, 1);
+            grid.second[c] = derivative(derived.second(), c, function, 2);
+            grid.values[c] = new double[grid.points];
+            grid.slopes[c] = new double[grid.points];
+            columns.add(new PlottableFunction(function.name(), function.color(), grid.first[c]));
+        }
+        for (int c = 0; c < functions.size(); c++) {
+            if (grid.second[c] != null) {
+                grid.curvatures[c] = new double[grid.points];
+                columns.add(new PlottableFunction(functions.get(c).name(), functions.get(c).color(), grid.second[c]));
+            }
+        }
+        ColumnEvaluator evaluator = new ColumnEvaluator(columns, pool);
+
+        List<FeaturePoint> features = new ArrayList<>();
+        int bracketCount = 0;
+        long lastPublished = System.nanoTime();
+        for (int from = 0; from < grid.points; from += STRIP_POINTS) {
+            int to = Math.min(grid.points, from + STRIP_POINTS);
+            evaluateStrip(evaluator, grid, from, to);
+            if (cancelled.getAsBoolean()) return List.of();
+
+            List<Bracket> brackets = bracket(functions, grid, Math.max(0, from - 1), to, MAX_FEATURES - bracketCount);
+            bracketCount += brackets.size();
+            List<ForkJoinTask<List<FeaturePoint>>> refinements = new ArrayList<>();
+            for (int b = 0; b < brackets.size(); b += BRACKETS_PER_TASK) {
+                List<Bracket> chunk = brackets.subList(b, Math.min(brackets.size(), b + BRACKETS_PER_TASK));
+                refinements.add(pool.submit(() -> refine(chunk, functions, request.viewport(), cancelled)));
+            }
+
+            for (ForkJoinTask<List<FeaturePoint>> refinement : refinements) {
+                if (cancelled.getAsBoolean()) {
+                    refinements.forEach(task -> task.cancel(false));
+                    return List.of();
+                }
+                features.addAll(refinement.join());
+                long now = System.nanoTime();
+                if (now - lastPublished >= FRAME_BUDGET_NANOS) {
+                    consumer.accept(List.copyOf(features));
+                    lastPublished = now;
+                }
+            }
+            long now = System.nanoTime();
+            if (to < grid.points && now - lastPublished >= FRAME_BUDGET_NANOS) {
+                consumer.accept(List.copyOf(features));
+                lastPublished = now;
+            }
+        }
+        if (cancelled.getAsBoolean()) return List.of();
+
+        List<FeaturePoint> result = List.copyOf(features);
+        consumer.accept(result);
+        return result;
+    }
+
+    private static void evaluateStrip(ColumnEvaluator evaluator, Grid grid, int from, int to) {
+        int count = to - from;
+        int curves = grid.values.length;
+        double[][] strip = new double[evaluator.columnCount()][count];
+        evaluator.evaluateGrid(grid.xMin, grid.step, from, count, new double[count], strip);
+
+        int column = 0;
+        for (int c = 0; c < curves; c++) {
+            System.arraycopy(strip[column++], 0, grid.values[c], from, count);
+        }
+        for (int c = 0; c < curves; c++) {
+            System.arraycopy(strip[column++], 0, grid.slopes[c], from, count);
+        }
+        for (int c = 0; c < curves; c++) {
+            if (grid.curvatures[c] != null) {
+                System.arraycopy(strip[column++], 0, grid.curvatures[c], from, count);
+            }
+        }
+    }
+
+    private synchronized Derivatives derivatives(PlotRequest plot) {
+        if (plot == null) return Derivatives.NONE;
+        if (!plot.equals(derivedPlot)) {
+            try {
+                derivatives = new Derivatives(
+                        FunctionSetService.createDerivatives(plot.expression(), plot.firstDerivative(), plot.secondDerivative(), 1),
+                        FunctionSetService.createDerivatives(plot.expression(), plot.firstDerivative(), plot.secondDerivative(), 2));
+            } catch (RuntimeException ex) {
+                derivatives = Derivatives.NONE;
+            }
+            derivedPlot = plot;
+        }
+        return derivatives;
+    }
+
+    private static DoubleUnaryOperator derivative(List<DoubleUnaryOperator> derivatives, int curve, PlottableFunction function, int order) {
+        if (derivatives != null && curve < derivatives.size() && derivatives.get(curve) != null) {
+            return derivatives.get(curve);
+        }
+        return order == 1 ? FunctionParserService.finiteDifference(function::evaluate, 1) : null;
+    }
+
+    private static List<Bracket> bracket(List<PlottableFunction> functions, Grid grid, int from, int to, int limit) {
+        List<Bracket> brackets = new ArrayList<>();
+        for (int c = 0; c < functions.size(); c++) {
+            PlottableFunction function = functions.get(c);
+            addSignChanges(brackets, limit, grid, grid.values[c], from, to, function::evaluate, CurveFeature.ROOT, c, -1);
+            addSignChanges(brackets, limit, grid, grid.slopes[c], from, to, grid.first[c], CurveFeature.MAXIMUM, c, -1);
+            if (grid.curvatures[c] != null) {
+                addSignChanges(brackets, limit, grid, grid.curvatures[c], from, to, grid.second[c], CurveFeature.INFLECTION, c, -1);
+            }
+        }
+        for (int c = 0; c < functions.size(); c++) {
+            for (int o = c + 1; o < functions.size(); o++) {
+                double[] difference = new double[grid.points];
+                for (int k = Math.max(0, from - 1); k < to; k++) {
+                    difference[k] = grid.values[c][k] - grid.values[o][k];
+                }
+                PlottableFunction left = functions.get(c);
+                PlottableFunction right = functions.get(o);
+                addSignChanges(brackets, limit, grid, difference, from, to, x -> left.evaluate(x) - right.evaluate(x), CurveFeature.INTERSECTION, c, o);
+            }
+        }
+        return brackets;
+    }
+
+    private static void addSignChanges(List<Bracket> brackets, int limit, Grid grid, double[] values, int from, int to,
+                                       DoubleUnaryOperator target, CurveFeature kind, int curve, int otherCurve) {
+        for (int k = from; k + 1 < to && brackets.size() < limit; k++) {
+            double fa = values[k];
+            double fb = values[k + 1];
+            if (!Double.isFinite(fa) || !Double.isFinite(fb) || fb == 0) continue;
+
+            double before = fa;
+            if (fa == 0) {
+                before = k > 0 ? values[k - 1] : Double.NaN;
+                if (!Double.isFinite(before) || before == 0) continue;
+            }
+            if ((before < 0) == (fb < 0)) continue;
+
+            CurveFeature feature = kind == CurveFeature.MAXIMUM && before < 0 ? CurveFeature.MINIMUM : kind;
+            brackets.add(new Bracket(feature, curve, otherCurve, target, grid.x(k), fa, grid.x(k + 1), fb));
+        }
+    }
+
+    private static List<FeaturePoint> refine(List<Bracket> brackets, List<PlottableFunction> functions, Viewport viewport, BooleanSupplier cancelled) {
+        List<FeaturePoint> features = new ArrayList<>();
+        for (Bracket bracket : brackets) {
+            if (cancelled.getAsBoolean()) break;
+
+            double x = bracket.fa() == 0 ? bracket.a() : brent(bracket.target(), bracket.a(), bracket.fa(), bracket.b(), bracket.fb());
+            if (Double.isNaN(x)) continue;
+            if (bracket.fa() != 0 && !(Math.abs(evaluate(bracket.target(), x)) <= Math.min(Math.abs(bracket.fa()), Math.abs(bracket.fb())))) continue;
+
+            double y = evaluate(functions.get(bracket.curve())::evaluate, x);
+            if (!Double.isFinite(y)) continue;
+
+            CurveFeature kind = bracket.kind();
+            features.add(new FeaturePoint(x, kind == CurveFeature.ROOT ? 0 : y, kind, bracket.curve(), bracket.otherCurve()));
+            boolean touchesZero = Math.abs(y) <= ZERO_TOLERANCE * viewport.yRange();
+            if ((kind == CurveFeature.MINIMUM || kind == CurveFeature.MAXIMUM) && touchesZero) {
+                features.add(new FeaturePoint(x, 0, CurveFeature.ROOT, bracket.curve()));
+            }
+        }
+        return features;
+    }
+
+    static double brent(DoubleUnaryOperator f, double a, double fa, double b, double fb) {
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            if ((fb > 0) == (fc > 0)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+
+            double tolerance = 2 * Math.ulp(b);
+            double m = 0.5 * (c - b);
+            if (Math.abs(m) <= tolerance || fb == 0) return b;
+
+            if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * m * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * m * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * m * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = m;
+                    e = d;
+                }
+            } else {
+                d = m;
+                e = d;
+            }
+
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, m);
+            fb = evaluate(f, b);
+            if (Double.isNaN(fb)) return Double.NaN;
+        }
+        return b;
+    }
+
+    private static double evaluate(DoubleUnaryOperator f, double x) {
+        try {
+            return f.applyAsDouble(x);
+        } catch (RuntimeException ex) {
+            return Double.NaN;
+        }
+    }
+
+    private record Derivatives(List<DoubleUnaryOperator> first, List<DoubleUnaryOperator> second) {
+
+        static final Derivatives NONE = new Derivatives(null, null);
+    }
+
+    private record Bracket(CurveFeature kind, int curve, int otherCurve, DoubleUnaryOperator target,
+                           double a, double fa, double b, double fb) {
+    }
+
+    private static final class Grid {
+        final double xMin;
+        final double step;
+        final int points;
+        final double[][] values;
+        final double[][] slopes;
+        final double[][] curvatures;
+        final DoubleUnaryOperator[] first;
+        final DoubleUnaryOperator[] second;
+
+        Grid(Viewport viewport, int samples, int curves) {
+            this.xMin = viewport.xMin();
+            this.step = viewport.xRange() / samples;
+            this.points = samples + 1;
+            this.values = new double[curves][];
+            this.slopes = new double[curves][];
+            this.curvatures = new double[curves][];
+            this.first = new DoubleUnaryOperator[curves];
+            this.second = new DoubleUnaryOperator[curves];
+        }
+
+        double x(int k) {
+            return xMin + k * step;
+        }
+    }
+}
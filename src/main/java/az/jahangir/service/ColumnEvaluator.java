@@ -0,0 +1,92 @@
+package az.jahangir.service;
+
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.service.expression.ExpressionBatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ColumnEvaluator {
+
+    private static final int BLOCK_SIZE = 4096;
+
+    private final List<PlottableFunction> functions;
+    private final Map<ExpressionBatch, List<Integer>> batches = new LinkedHashMap<>();
+    private final List<Integer> scalars = new ArrayList<>();
+    private final ForkJoinPool pool;
+
+    public ColumnEvaluator(List<PlottableFunction> functions, ForkJoinPool pool) {
+        this.functions = List.copyOf(functions);
+        this.pool = pool;
+        for (int f = 0; f < this.functions.size(); f++) {
+            if (this.functions.get(f).evaluator() instanceof ExpressionBatch.Member member) {
+                batches.computeIfAbsent(member.batch(), b -> new ArrayList<>()).add(f);
+            } else {
+                scalars.add(f);
+            }
+        }
+    }
+
+    public int columnCount() {
+        return functions.size();
+    }
+
+    public void evaluateGrid(double xMin, double step, long firstRow, int count, double[] xs, double[][] columns) {
+        pool.invoke(new BlockTask(xMin, step, firstRow, 0, count, xs, columns));
+    }
+
+    private void evaluateBlock(double[] xs, int from, int to, double[][] columns) {
+        int length = to - from;
+        for (Map.Entry<ExpressionBatch, List<Integer>> entry : batches.entrySet()) {
+            ExpressionBatch batch = entry.getKey();
+            double[][] out = new double[batch.outputCount()][length];
+            batch.evaluate(xs, from, length, out);
+            for (int f : entry.getValue()) {
+                int output = ((ExpressionBatch.Member) functions.get(f).evaluator()).output();
+                System.arraycopy(out[output], 0, columns[f], from, length);
+            }
+        }
+        for (int f : scalars) {
+            functions.get(f).evaluate(xs, columns[f], from, to);
+        }
+    }
+
+    private class BlockTask extends RecursiveAction {
+
+        private final double xMin;
+        private final double step;
+        private final long firstRow;
+        private final int from;
+        private final int to;
+        private final double[] xs;
+        private final double[][] columns;
+
+        BlockTask(double xMin, double step, long firstRow, int from, int to, double[] xs, double[][] columns) {
+            this.xMin = xMin;
+            this.step = step;
+            this.firstRow = firstRow;
+            this.from = from;
+            this.to = to;
+            this.xs = xs;
+            this.columns = columns;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BLOCK_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BlockTask(xMin, step, firstRow, from, mid, xs, columns),
+                        new BlockTask(xMin, step, firstRow, mid, to, xs, columns));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                xs[i] = xMin + (firstRow + i) * step;
+            }
+            evaluateBlock(xs, from, to, columns);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package az.jahangir.service;
+
+import az.jahangir.model.PlaneCurve;
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.service.expression.DualEvaluator;
+
+import java.util.List;
+
+public record CompiledPlot(PlotRequest request, List<PlottableFunction> functions, List<PlaneCurve> curves,
+                           DualEvaluator trackingEvaluator) {
+}
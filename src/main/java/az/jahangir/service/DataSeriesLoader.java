@@ -0,0 +1,141 @@
+package az.jahangir.service;
+
+import az.jahangir.model.DataSeries;
+
+import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DataSeriesLoader {
+
+    private static final int CHUNK_ROWS = 1 << 16;
+
+    public static List<DataSeries> load(Path path) throws IOException {
+        Path samples = isSampleFile(path) ? path : convertCsv(path);
+        SampleFileReader reader = SampleFileReader.open(samples);
+        SampleFileHeader header = reader.getHeader();
+
+        List<DataSeries> series = new ArrayList<>(header.columnCount() - 1);
+        for (int column = 1; column < header.columnCount(); column++) {
+            series.add(new DataSeries(header.columnNames().get(column), header.columnColors().get(column),
+                    reader.column(0), reader.column(column)));
+        }
+        return series;
+    }
+
+    private static boolean isSampleFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(SampleFileHeader.BYTE_ORDER);
+            return channel.read(magic, 0) == Integer.BYTES && magic.getInt(0) == SampleFileHeader.MAGIC;
+        }
+    }
+
+    private static Path convertCsv(Path csv) throws IOException {
+        List<String> columnNames = new ArrayList<>();
+        boolean hasHeader = false;
+        String firstRow = null;
+        String lastRow = null;
+        long rows = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                if (columnNames.isEmpty()) {
+                    String[] fields = line.split(",", -1);
+                    if (fields.length < 2) throw new IOException("Expected at least an x and a y column");
+                    hasHeader = Double.isNaN(parse(fields[0]));
+                    for (int i = 0; i < fields.length; i++) {
+                        columnNames.add(hasHeader ? fields[i].trim() : i == 0 ? "x" : "y" + i);
+                    }
+                    if (hasHeader) continue;
+                }
+                if (rows == 0) firstRow = line;
+                lastRow = line;
+                rows++;
+            }
+        }
+        if (rows < 2) throw new IOException("At least two data rows are required");
+
+        List<Color> columnColors = new ArrayList<>(columnNames.size());
+        for (int i = 0; i < columnNames.size(); i++) {
+            columnColors.add(i == 0 ? Color.BLACK : FunctionSetService.paletteColor(i - 1));
+        }
+
+        double[][] chunk = new double[columnNames.size()][(int) Math.min(CHUNK_ROWS, rows)];
+        parseRow(firstRow, chunk, 0);
+        double xMin = chunk[0][0];
+        parseRow(lastRow, chunk, 0);
+        double xMax = chunk[0][0];
+
+        Path converted = Files.createTempFile("graph-plotter-", ".gps");
+        converted.toFile().deleteOnExit();
+        SampleFileHeader header = new SampleFileHeader(csv.getFileName().toString(), xMin, xMax, rows, columnNames, columnColors);
+
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             SampleFileWriter writer = new SampleFileWriter(converted, header)) {
+            long firstChunkRow = 0;
+            int count = 0;
+            boolean skipHeader = hasHeader;
+            double previousX = Double.NEGATIVE_INFINITY;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                if (skipHeader) {
+                    skipHeader = false;
+                    continue;
+                }
+
+                parseRow(line, chunk, count);
+                double x = chunk[0][count];
+                if (!(x >= previousX) || Double.isInfinite(x)) {
+                    throw new IOException("x values must be finite and ascending (row " + (firstChunkRow + count + 1) + ")");
+                }
+                previousX = x;
+
+                if (++count == chunk[0].length) {
+                    writer.writeRows(firstChunkRow, chunk, count);
+                    firstChunkRow += count;
+                    count = 0;
+                }
+            }
+            if (count > 0) {
+                writer.writeRows(firstChunkRow, chunk, count);
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(converted);
+            throw ex;
+        }
+        return converted;
+    }
+
+    private static void parseRow(String line, double[][] columns, int row) {
+        int start = 0;
+        for (int column = 0; column < columns.length; column++) {
+            if (start > line.length()) {
+                columns[column][row] = Double.NaN;
+                continue;
+            }
+            int end = line.indexOf(',', start);
+            if (end < 0) end = line.length();
+            columns[column][row] = parse(line.substring(start, end));
+            start = end + 1;
+        }
+    }
+
+    private static double parse(String field) {
+        try {
+            return Double.parseDouble(field.trim());
+        } catch (NumberFormatException ex) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package az.jahangir.service;
+
+public enum EvaluationBackend {
+    INTERPRETER,
+    COMPILED;
+
+    public static final String PROPERTY = "graphplotter.backend";
+
+    public static EvaluationBackend fromSystemProperty() {
+        String value = System.getProperty(PROPERTY, COMPILED.name());
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return COMPILED;
+        }
+    }
+}
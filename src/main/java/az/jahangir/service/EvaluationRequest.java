@@ -0,0 +1,4 @@
+package az.jahangir.service;
+
+public record EvaluationRequest(String expression, int order) {
+}
@@ -1,17 +1,223 @@
 package az.jahangir.service;
 
+import az.jahangir.model.DoubleDoubleFunction;
+import az.jahangir.model.IntervalBivariateFunction;
+import az.jahangir.model.IntervalFunction;
+import az.jahangir.service.expression.DoubleDoubleEvaluator;
+import az.jahangir.service.expression.DualEvaluator;
+import az.jahangir.service.expression.ExpressionBatch;
+import az.jahangir.service.expression.ExpressionCompiler;
+import az.jahangir.service.expression.ExpressionNode;
+import az.jahangir.service.expression.ExpressionTreeBuilder;
+import az.jahangir.service.expression.IntervalEvaluator;
+import az.jahangir.service.expression.SymbolicDifferentiator;
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
 public class FunctionParserService {
 
+    private static final String VARIABLE = "x";
+    private static final double H = 1e-7;
+
     public static Expression parse(String functionString) throws IllegalArgumentException {
+        return parse(functionString, VARIABLE);
+    }
+
+    public static Expression parse(String functionString, String... variables) throws IllegalArgumentException {
+        requireExpression(functionString);
+        return new ExpressionBuilder(functionString)
+                .variables(variables)
+                .build();
+    }
+
+    public static DoubleUnaryOperator compile(String functionString, String variable) throws IllegalArgumentException {
+        Expression expression = parse(functionString, variable);
+
+        if (EvaluationBackend.fromSystemProperty() == EvaluationBackend.COMPILED) {
+            try {
+                return ExpressionCompiler.compile(ExpressionTreeBuilder.build(functionString, Set.of(variable)), variable);
+            } catch (UnsupportedOperationException ignored) {
+            }
+        }
+
+        return interpret(expression, variable);
+    }
+
+    public static DoubleBinaryOperator compileBivariate(String functionString, String first, String second) throws IllegalArgumentException {
+        Expression expression = parse(functionString, first, second);
+
+        if (EvaluationBackend.fromSystemProperty() == EvaluationBackend.COMPILED) {
+            try {
+                return ExpressionCompiler.compileBivariate(ExpressionTreeBuilder.build(functionString, Set.of(first, second)), first, second);
+            } catch (UnsupportedOperationException ignored) {
+            }
+        }
+
+        ThreadLocal<Expression> perThread = ThreadLocal.withInitial(() -> new Expression(expression));
+        return (a, b) -> {
+            Expression local = perThread.get();
+            local.setVariable(first, a);
+            local.setVariable(second, b);
+            return local.evaluate();
+        };
+    }
+
+    public static IntervalBivariateFunction bivariateBounds(String functionString, String first, String second) {
+        try {
+            return IntervalEvaluator.compileBivariate(ExpressionTreeBuilder.build(functionString, Set.of(first, second)), first, second);
+        } catch (IllegalArgumentException | UnsupportedOperationException ex) {
+            return null;
+        }
+    }
+
+    public static DoubleUnaryOperator compile(String functionString) throws IllegalArgumentException {
+        return compile(functionString, EvaluationBackend.fromSystemProperty());
+    }
+
+    public static DoubleUnaryOperator compile(String functionString, EvaluationBackend backend) throws IllegalArgumentException {
+        Expression expression = parse(functionString);
+
+        if (backend == EvaluationBackend.COMPILED) {
+            try {
+                return ExpressionCompiler.compile(ExpressionTreeBuilder.build(functionString, Set.of(VARIABLE)), VARIABLE);
+            } catch (UnsupportedOperationException ignored) {
+            }
+        }
+
+        return interpret(expression);
+    }
+
+    public static DoubleUnaryOperator derivative(String functionString, int order) throws IllegalArgumentException {
+        return derivative(functionString, order, EvaluationBackend.fromSystemProperty());
+    }
+
+    public static DoubleUnaryOperator derivative(String functionString, int order, EvaluationBackend backend) throws IllegalArgumentException {
+        if (backend == EvaluationBackend.COMPILED) {
+            requireExpression(functionString);
+            try {
+                ExpressionNode tree = ExpressionTreeBuilder.build(functionString, Set.of(VARIABLE));
+                try {
+                    return ExpressionBatch.compile(List.of(derivativeTree(tree, order)), VARIABLE).scalar(0);
+                } catch (UnsupportedOperationException ignored) {
+                }
+                if (order == 1) {
+                    return DualEvaluator.compile(tree, VARIABLE).derivative();
+                }
+            } catch (UnsupportedOperationException ignored) {
+            }
+        }
+
+        return finiteDifference(compile(functionString, backend), order);
+    }
+
+    public static List<DoubleUnaryOperator> compileAll(List<EvaluationRequest> requests) throws IllegalArgumentException {
+        return compileAll(requests, EvaluationBackend.fromSystemProperty());
+    }
+
+    public static List<DoubleUnaryOperator> compileAll(List<EvaluationRequest> requests, EvaluationBackend backend) throws IllegalArgumentException {
+        List<DoubleUnaryOperator> scalars = new ArrayList<>(requests.size());
+        List<ExpressionNode> trees = new ArrayList<>(requests.size());
+
+        for (EvaluationRequest request : requests) {
+            ExpressionNode tree = null;
+            DoubleUnaryOperator scalar = null;
+            parse(request.expression());
+            if (backend == EvaluationBackend.COMPILED) {
+                try {
+                    ExpressionNode parsed = ExpressionTreeBuilder.build(request.expression(), Set.of(VARIABLE));
+                    tree = derivativeTree(parsed, request.order());
+                    if (request.order() == 0) {
+                        scalar = ExpressionCompiler.compile(tree, VARIABLE);
+                    }
+                } catch (UnsupportedOperationException ex) {
+                    tree = null;
+                }
+            }
+            if (Objects.isNull(tree)) {
+                scalar = request.order() == 0
+                        ? compile(request.expression(), backend)
+                        : derivative(request.expression(), request.order(), backend);
+            }
+            scalars.add(scalar);
+            trees.add(tree);
+        }
+
+        List<ExpressionNode> batchRoots = trees.stream().filter(Objects::nonNull).toList();
+        if (batchRoots.isEmpty()) return scalars;
+
+        ExpressionBatch batch = ExpressionBatch.compile(batchRoots, VARIABLE);
+        List<DoubleUnaryOperator> result = new ArrayList<>(scalars.size());
+        int output = 0;
+        for (int i = 0; i < scalars.size(); i++) {
+            if (Objects.isNull(trees.get(i))) {
+                result.add(scalars.get(i));
+                continue;
+            }
+            DoubleUnaryOperator scalar = Objects.isNull(scalars.get(i)) ? batch.scalar(output) : scalars.get(i);
+            result.add(batch.member(output++, scalar));
+        }
+        return result;
+    }
+
+    public static DualEvaluator dual(String functionString) throws IllegalArgumentException {
+        parse(functionString);
+        return DualEvaluator.compile(ExpressionTreeBuilder.build(functionString, Set.of(VARIABLE)), VARIABLE);
+    }
+
+    public static IntervalFunction bounds(String functionString, int order) {
+        try {
+            ExpressionNode tree = ExpressionTreeBuilder.build(functionString, Set.of(VARIABLE));
+            return IntervalEvaluator.compile(derivativeTree(tree, order), VARIABLE);
+        } catch (IllegalArgumentException | UnsupportedOperationException ex) {
+            return null;
+        }
+    }
+
+    public static DoubleDoubleFunction precise(String functionString, int order) {
+        try {
+            ExpressionNode tree = ExpressionTreeBuilder.build(functionString, Set.of(VARIABLE));
+            return DoubleDoubleEvaluator.compile(derivativeTree(tree, order), VARIABLE);
+        } catch (IllegalArgumentException | UnsupportedOperationException ex) {
+            return null;
+        }
+    }
+
+    public static DoubleUnaryOperator finiteDifference(DoubleUnaryOperator function, int order) {
+        double h = order == 1 ? H : Math.pow(Math.ulp(1.0), 1.0 / (order + 2));
+        DoubleUnaryOperator result = function;
+        for (int i = 0; i < order; i++) {
+            DoubleUnaryOperator inner = result;
+            result = x -> (inner.applyAsDouble(x + h) - inner.applyAsDouble(x - h)) / (2 * h);
+        }
+        return result;
+    }
+
+    private static ExpressionNode derivativeTree(ExpressionNode tree, int order) {
+        return order == 0 ? tree : SymbolicDifferentiator.differentiate(tree, VARIABLE, order);
+    }
+
+    private static void requireExpression(String functionString) throws IllegalArgumentException {
         if (Objects.isNull(functionString) || functionString.trim().isEmpty()) {
             throw new IllegalArgumentException("Function string cannot be null or empty");
         }
-        return new ExpressionBuilder(functionString)
-                .variable("x")
-                .build();
     }
-}
\ No newline at end of file
+
+    public static DoubleUnaryOperator interpret(Expression expression) {
+        return interpret(expression, VARIABLE);
+    }
+
+    public static DoubleUnaryOperator interpret(Expression expression, String variable) {
+        ThreadLocal<Expression> perThread = ThreadLocal.withInitial(() -> new Expression(expression));
+        return x -> {
+            Expression local = perThread.get();
+            local.setVariable(variable, x);
+            return local.evaluate();
+        };
+    }
+}
@@ -0,0 +1,197 @@
+package az.jahangir.service;
+
+import az.jahangir.model.DoubleDoubleFunction;
+import az.jahangir.model.ImplicitCurve;
+import az.jahangir.model.IntervalFunction;
+import az.jahangir.model.ParametricCurve;
+import az.jahangir.model.PlaneCurve;
+import az.jahangir.model.PlottableFunction;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class FunctionSetService {
+
+    private static final Pattern EXPRESSION_SEPARATOR = Pattern.compile(";");
+    private static final Pattern POLAR_PREFIX = Pattern.compile("^r\\s*=\\s*");
+    private static final Pattern PARAMETER_RANGE = Pattern.compile("^(.+?)\\s*\\[([^\\[\\],]+),([^\\[\\],]+)]\\s*$");
+    private static final String PARAMETER = "t";
+    private static final double DEFAULT_PARAMETER_MAX = 2 * Math.PI;
+    private static final Pattern SHORTHAND_POWER_PATTERN = Pattern.compile("\\(\\s*([a-zA-Z]+)\\s*\\^\\s*([0-9.]+)\\s*\\)");
+    private static final Color[] PALETTE = {
+            new Color(31, 119, 180), new Color(255, 127, 14), new Color(44, 160, 44), new Color(214, 39, 40),
+            new Color(148, 103, 189), new Color(140, 86, 75), new Color(227, 119, 194), new Color(127, 127, 127),
+            new Color(188, 189, 34), new Color(23, 190, 207)
+    };
+
+    public static Color paletteColor(int index) {
+        return PALETTE[index % PALETTE.length];
+    }
+
+    public static String preprocessFunctionString(String functionString) {
+        return SHORTHAND_POWER_PATTERN.matcher(functionString).replaceAll("($1$3)^$2");
+    }
+
+    public static List<String> splitExpressions(String rawFunctionString) {
+        List<String> expressions = new ArrayList<>();
+        for (String part : EXPRESSION_SEPARATOR.split(rawFunctionString)) {
+            if (!part.isBlank()) {
+                expressions.add(preprocessFunctionString(part.trim()));
+            }
+        }
+        return expressions;
+    }
+
+    public static List<String> explicitExpressions(String rawFunctionString) {
+        List<String> expressions = new ArrayList<>();
+        for (String expression : splitExpressions(rawFunctionString)) {
+            if (!isPlaneCurve(expression)) {
+                expressions.add(expression);
+            }
+        }
+        return expressions;
+    }
+
+    public static boolean isPlaneCurve(String expression) {
+        if (expression.indexOf('=') >= 0) return true;
+        Matcher range = PARAMETER_RANGE.matcher(expression);
+        return parametricComponents(range.matches() ? range.group(1).trim() : expression.trim()) != null;
+    }
+
+    public static List<PlottableFunction> createFunctions(String rawFunctionString, boolean firstDerivative, boolean secondDerivative) throws IllegalArgumentException {
+        List<String> expressions = explicitExpressions(rawFunctionString);
+        if (splitExpressions(rawFunctionString).isEmpty()) {
+            FunctionParserService.parse(rawFunctionString);
+        }
+
+        List<EvaluationRequest> requests = evaluationRequests(expressions, firstDerivative, secondDerivative);
+        List<String> names = new ArrayList<>();
+        List<Color> colors = new ArrayList<>();
+
+        boolean single = expressions.size() == 1;
+        for (int i = 0; i < expressions.size(); i++) {
+            String label = single ? "f" : "f" + (i + 1);
+            Color color = single ? Color.BLUE : paletteColor(i);
+
+            names.add(label + "(x)");
+            colors.add(color);
+
+            if (firstDerivative) {
+                names.add(label + "'(x)");
+                colors.add(single ? Color.RED : color.darker());
+            }
+
+            if (secondDerivative) {
+                names.add(label + "''(x)");
+                colors.add(single ? new Color(0, 150, 0) : color.darker().darker());
+            }
+        }
+
+        List<DoubleUnaryOperator> evaluators = FunctionParserService.compileAll(requests);
+        List<PlottableFunction> functions = new ArrayList<>(evaluators.size());
+        for (int i = 0; i < evaluators.size(); i++) {
+            EvaluationRequest request = requests.get(i);
+            IntervalFunction bounds = FunctionParserService.bounds(request.expression(), request.order());
+            DoubleDoubleFunction precise = FunctionParserService.precise(request.expression(), request.order());
+            functions.add(new PlottableFunction(names.get(i), colors.get(i), evaluators.get(i), bounds, precise));
+        }
+        return functions;
+    }
+
+    public static List<DoubleUnaryOperator> createDerivatives(String rawFunctionString, boolean firstDerivative, boolean secondDerivative, int order) throws IllegalArgumentException {
+        List<EvaluationRequest> requests = new ArrayList<>();
+        for (EvaluationRequest request : evaluationRequests(explicitExpressions(rawFunctionString), firstDerivative, secondDerivative)) {
+            requests.add(new EvaluationRequest(request.expression(), request.order() + order));
+        }
+        return FunctionParserService.compileAll(requests);
+    }
+
+    public static List<PlaneCurve> createCurves(String rawFunctionString) throws IllegalArgumentException {
+        List<String> expressions = splitExpressions(rawFunctionString);
+        List<PlaneCurve> curves = new ArrayList<>();
+        for (int i = 0; i < expressions.size(); i++) {
+            if (isPlaneCurve(expressions.get(i))) {
+                curves.add(createCurve(expressions.get(i), paletteColor(i)));
+            }
+        }
+        return curves;
+    }
+
+    private static PlaneCurve createCurve(String expression, Color color) throws IllegalArgumentException {
+        Matcher polar = POLAR_PREFIX.matcher(expression);
+        if (polar.lookingAt()) {
+            ParameterRange range = parameterRange(expression.substring(polar.end()));
+            return ParametricCurve.polar(expression, color, compileParametric(range.body()), range.min(), range.max());
+        }
+
+        int equals = expression.indexOf('=');
+        if (equals >= 0) {
+            if (expression.indexOf('=', equals + 1) >= 0) {
+                throw new IllegalArgumentException("An implicit curve needs exactly one '=': " + expression);
+            }
+            String function = "(" + expression.substring(0, equals) + ")-(" + expression.substring(equals + 1) + ")";
+            return new ImplicitCurve(expression, color, FunctionParserService.compileBivariate(function, "x", "y"),
+                    FunctionParserService.bivariateBounds(function, "x", "y"));
+        }
+
+        ParameterRange range = parameterRange(expression);
+        String[] components = parametricComponents(range.body());
+        return new ParametricCurve(expression, color, compileParametric(components[0]), compileParametric(components[1]), range.min(), range.max());
+    }
+
+    private static DoubleUnaryOperator compileParametric(String expression) throws IllegalArgumentException {
+        return FunctionParserService.compile(expression.replace("θ", PARAMETER), PARAMETER);
+    }
+
+    private static ParameterRange parameterRange(String expression) {
+        Matcher matcher = PARAMETER_RANGE.matcher(expression);
+        if (!matcher.matches()) {
+            return new ParameterRange(expression.trim(), 0, DEFAULT_PARAMETER_MAX);
+        }
+        double min = compileParametric(matcher.group(2).trim()).applyAsDouble(0);
+        double max = compileParametric(matcher.group(3).trim()).applyAsDouble(0);
+        return new ParameterRange(matcher.group(1).trim(), min, max);
+    }
+
+    private static String[] parametricComponents(String body) {
+        if (body.length() < 2 || body.charAt(0) != '(' || body.charAt(body.length() - 1) != ')') return null;
+
+        int depth = 0;
+        int comma = -1;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0 && i != body.length() - 1) return null;
+            } else if (c == ',' && depth == 1) {
+                if (comma >= 0) return null;
+                comma = i;
+            }
+        }
+        if (comma < 0) return null;
+        return new String[]{body.substring(1, comma).trim(), body.substring(comma + 1, body.length() - 1).trim()};
+    }
+
+    private record ParameterRange(String body, double min, double max) {
+    }
+
+    private static List<EvaluationRequest> evaluationRequests(List<String> expressions, boolean firstDerivative, boolean secondDerivative) {
+        List<EvaluationRequest> requests = new ArrayList<>();
+        for (String expression : expressions) {
+            requests.add(new EvaluationRequest(expression, 0));
+            if (firstDerivative) {
+                requests.add(new EvaluationRequest(expression, 1));
+            }
+            if (secondDerivative) {
+                requests.add(new EvaluationRequest(expression, 2));
+            }
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,184 @@
+package az.jahangir.service;
+
+import az.jahangir.model.CurveFeature;
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.SampleBuffer;
+import az.jahangir.service.expression.DualEvaluator;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class HoverSampler {
+
+    private List<PlottableFunction> functions = List.of();
+    private List<SampleBuffer> samples = List.of();
+    private DualEvaluator pairedEvaluator;
+    private final double[] pairedValues = new double[2];
+    private double[] cachedValues = new double[0];
+    private boolean[] cached = new boolean[0];
+    private double cachedX = Double.NaN;
+    private boolean pairedCached;
+
+    @Getter
+    private double x;
+    @Getter
+    private double[] values = new double[0];
+    @Getter
+    private int count;
+    @Getter
+    private CurveFeature feature = CurveFeature.NONE;
+    @Getter
+    private int featureCurve = -1;
+
+    public void setFunctions(List<PlottableFunction> functions, DualEvaluator pairedEvaluator) {
+        this.functions = functions;
+        this.pairedEvaluator = pairedEvaluator;
+        this.samples = List.of();
+        if (values.length < functions.size()) {
+            values = new double[functions.size()];
+            cachedValues = new double[functions.size()];
+            cached = new boolean[functions.size()];
+        }
+        invalidateCache();
+    }
+
+    public void setSamples(List<PlottableFunction> frameFunctions, List<SampleBuffer> frameSamples) {
+        this.samples = frameFunctions.equals(functions) ? frameSamples : List.of();
+    }
+
+    public void track(double mathX, double snapRadius) {
+        x = mathX;
+        feature = CurveFeature.NONE;
+        featureCurve = -1;
+        count = functions.size();
+
+        if (snapRadius > 0) {
+            snap(mathX, snapRadius);
+        }
+        if (x != cachedX) {
+            invalidateCache();
+            cachedX = x;
+        }
+
+        for (int i = 0; i < count; i++) {
+            double y = i == featureCurve ? Double.NaN : lookup(i, x);
+            values[i] = Double.isNaN(y) ? evaluate(i, x) : y;
+        }
+    }
+
+    private void snap(double mathX, double radius) {
+        double bestDistance = radius;
+        for (int i = 0; i < samples.size() && i < count; i++) {
+            SampleBuffer buffer = samples.get(i);
+            double[] xs = buffer.getXs();
+            double[] ys = buffer.getYs();
+            int end = buffer.getCount();
+            int start = Math.max(1, lowerBound(xs, end, mathX - radius));
+
+            for (int j = start; j < end - 1 && xs[j - 1] <= mathX + radius; j++) {
+                double y0 = ys[j - 1];
+                double y1 = ys[j];
+                double y2 = ys[j + 1];
+                if (Double.isNaN(y0) || Double.isNaN(y1)) continue;
+
+                if (y0 == 0 || ((y0 < 0) != (y1 < 0) && y1 != 0)) {
+                    double root = y0 == 0 ? xs[j - 1] : xs[j - 1] - y0 * (xs[j] - xs[j - 1]) / (y1 - y0);
+                    double distance = Math.abs(root - mathX);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        setFeature(root, CurveFeature.ROOT, i);
+                    }
+                }
+                if (Double.isNaN(y2)) continue;
+
+                boolean maximum = y1 > y0 && y1 >= y2;
+                boolean minimum = y1 < y0 && y1 <= y2;
+                if (maximum || minimum) {
+                    double vertex = parabolaVertex(xs[j - 1], y0, xs[j], y1, xs[j + 1], y2);
+                    double distance = Math.abs(vertex - mathX);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        setFeature(vertex, maximum ? CurveFeature.MAXIMUM : CurveFeature.MINIMUM, i);
+                    }
+                }
+            }
+        }
+    }
+
+    private void setFeature(double featureX, CurveFeature kind, int curve) {
+        x = featureX;
+        feature = kind;
+        featureCurve = curve;
+    }
+
+    private static double parabolaVertex(double x0, double y0, double x1, double y1, double x2, double y2) {
+        double d0 = (x1 - x0) * (y1 - y2);
+        double d1 = (x1 - x2) * (y1 - y0);
+        double denominator = d0 - d1;
+        if (denominator == 0) return x1;
+        double vertex = x1 - 0.5 * ((x1 - x0) * d0 - (x1 - x2) * d1) / denominator;
+        return Math.max(x0, Math.min(x2, vertex));
+    }
+
+    private double lookup(int curve, double at) {
+        if (curve >= samples.size()) return Double.NaN;
+
+        SampleBuffer buffer = samples.get(curve);
+        double[] xs = buffer.getXs();
+        double[] ys = buffer.getYs();
+        int end = buffer.getCount();
+        if (end < 2 || at < xs[0] || at > xs[end - 1]) return Double.NaN;
+
+        int j = Math.min(Math.max(1, lowerBound(xs, end, at)), end - 1);
+        double x0 = xs[j - 1];
+        double x1 = xs[j];
+        double y0 = ys[j - 1];
+        double y1 = ys[j];
+        if (at == x1) return y1;
+        if (x1 == x0) return y0;
+        return y0 + (y1 - y0) * (at - x0) / (x1 - x0);
+    }
+
+    private double evaluate(int curve, double at) {
+        if (cached[curve]) return cachedValues[curve];
+
+        double y;
+        if (pairedEvaluator != null && curve < pairedValues.length && count >= pairedValues.length) {
+            if (!pairedCached) {
+                pairedEvaluator.evaluate(at, pairedValues);
+                pairedCached = true;
+            }
+            y = pairedValues[curve];
+        } else {
+            try {
+                y = functions.get(curve).evaluate(at);
+            } catch (RuntimeException ex) {
+                y = Double.NaN;
+            }
+        }
+        cachedValues[curve] = y;
+        cached[curve] = true;
+        return y;
+    }
+
+    private void invalidateCache() {
+        Arrays.fill(cached, false);
+        cachedX = Double.NaN;
+        pairedCached = false;
+    }
+
+    private static int lowerBound(double[] xs, int end, double value) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xs[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,248 @@
+package az.jahangir.service;
+
+import az.jahangir.model.ImplicitCurve;
+import az.jahangir.model.Interval;
+import az.jahangir.model.SampleBuffer;
+import az.jahangir.model.Viewport;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+public class ImplicitContourer {
+
+    public static final double DEFAULT_LEAF_PX = 2;
+    public static final double PREVIEW_LEAF_PX = 8;
+
+    private static final double ROOT_CELL_PX = 32;
+    private static final double BLIND_CELL_PX = 8;
+    private static final long MAX_EVALUATIONS = 4_000_000;
+
+    private final ForkJoinPool pool;
+    private final LongAdder evaluations = new LongAdder();
+    @Getter
+    private long lastEvaluationCount;
+
+    public ImplicitContourer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ImplicitContourer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public boolean contour(ImplicitCurve curve, Viewport viewport, int plotWidth, int plotHeight, double leafPx,
+                           SampleBuffer out, BooleanSupplier cancelled) {
+        out.clear();
+        evaluations.reset();
+        lastEvaluationCount = 0;
+        if (plotWidth <= 0 || plotHeight <= 0) return true;
+
+        int columns = Math.max(1, (int) Math.ceil(plotWidth / ROOT_CELL_PX));
+        int rows = Math.max(1, (int) Math.ceil(plotHeight / ROOT_CELL_PX));
+        double cellWidth = viewport.xRange() / columns;
+        double cellHeight = viewport.yRange() / rows;
+        double xScale = plotWidth / viewport.xRange();
+        double yScale = plotHeight / viewport.yRange();
+
+        double[][] corners = new double[rows + 1][columns + 1];
+        for (int r = 0; r <= rows; r++) {
+            double y = viewport.yMin() + r * cellHeight;
+            for (int c = 0; c <= columns; c++) {
+                corners[r][c] = evaluate(curve, viewport.xMin() + c * cellWidth, y);
+            }
+        }
+        evaluations.add((long) (rows + 1) * (columns + 1));
+
+        long rowBudget = MAX_EVALUATIONS / rows;
+        SampleBuffer[] rowSegments = new SampleBuffer[rows];
+        List<RecursiveAction> tasks = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            int row = r;
+            rowSegments[r] = new SampleBuffer();
+            tasks.add(action(() -> {
+                Cells cells = new Cells(curve, xScale, yScale, leafPx, rowBudget, rowSegments[row]);
+                double y0 = viewport.yMin() + row * cellHeight;
+                for (int c = 0; c < columns && !cancelled.getAsBoolean(); c++) {
+                    double x0 = viewport.xMin() + c * cellWidth;
+                    cells.refine(x0, y0, cellWidth, cellHeight,
+                            corners[row][c], corners[row][c + 1], corners[row + 1][c], corners[row + 1][c + 1]);
+                }
+                evaluations.add(cells.evaluations);
+            }));
+        }
+        run(tasks);
+
+        for (SampleBuffer segments : rowSegments) {
+            out.appendAll(segments);
+        }
+        lastEvaluationCount = evaluations.sum();
+        return !cancelled.getAsBoolean();
+    }
+
+    private void run(List<RecursiveAction> tasks) {
+        if (tasks.size() == 1) {
+            tasks.get(0).invoke();
+            return;
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    private static RecursiveAction action(Runnable body) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                body.run();
+            }
+        };
+    }
+
+    private static double evaluate(ImplicitCurve curve, double x, double y) {
+        try {
+            return curve.evaluate(x, y);
+        } catch (RuntimeException ex) {
+            return Double.NaN;
+        }
+    }
+
+    private static class Cells {
+
+        final ImplicitCurve curve;
+        final double xScale;
+        final double yScale;
+        final double leafPx;
+        final long budget;
+        final SampleBuffer out;
+        long evaluations;
+
+        Cells(ImplicitCurve curve, double xScale, double yScale, double leafPx, long budget, SampleBuffer out) {
+            this.curve = curve;
+            this.xScale = xScale;
+            this.yScale = yScale;
+            this.leafPx = leafPx;
+            this.budget = budget;
+            this.out = out;
+        }
+
+        void refine(double x0, double y0, double w, double h, double f00, double f10, double f01, double f11) {
+            double cellPx = Math.max(w * xScale, h * yScale);
+            if (curve.hasBounds()) {
+                Interval range;
+                try {
+                    range = curve.bounds().apply(Interval.of(x0, x0 + w), Interval.of(y0, y0 + h));
+                } catch (RuntimeException ex) {
+                    range = Interval.ENTIRE;
+                }
+                if (range.isEmpty() || !range.contains(0)) return;
+            } else if (cellPx <= BLIND_CELL_PX && !changesSign(f00, f10, f01, f11)) {
+                return;
+            }
+
+            double xm = x0 + 0.5 * w;
+            double ym = y0 + 0.5 * h;
+            if (cellPx <= leafPx || evaluations >= budget) {
+                march(x0, y0, w, h, f00, f10, f01, f11);
+                return;
+            }
+
+            double x1 = x0 + w;
+            double y1 = y0 + h;
+            double bottom = value(xm, y0);
+            double top = value(xm, y1);
+            double left = value(x0, ym);
+            double right = value(x1, ym);
+            double centre = value(xm, ym);
+            double hw = 0.5 * w;
+            double hh = 0.5 * h;
+            refine(x0, y0, hw, hh, f00, bottom, left, centre);
+            refine(xm, y0, hw, hh, bottom, f10, centre, right);
+            refine(x0, ym, hw, hh, left, centre, f01, top);
+            refine(xm, ym, hw, hh, centre, right, top, f11);
+        }
+
+        private void march(double x0, double y0, double w, double h, double f00, double f10, double f01, double f11) {
+            if (Double.isNaN(f00) || Double.isNaN(f10) || Double.isNaN(f01) || Double.isNaN(f11)) return;
+
+            boolean p00 = f00 > 0;
+            boolean p10 = f10 > 0;
+            boolean p01 = f01 > 0;
+            boolean p11 = f11 > 0;
+            if (p00 == p10 && p00 == p01 && p00 == p11) return;
+
+            double x1 = x0 + w;
+            double y1 = y0 + h;
+            if (p00 == p11 && p10 == p01) {
+                double centre = value(x0 + 0.5 * w, y0 + 0.5 * h);
+                if ((centre > 0) == p00) {
+                    segment(x0 + w * crossing(f00, f10), y0, x1, y0 + h * crossing(f10, f11));
+                    segment(x0 + w * crossing(f01, f11), y1, x0, y0 + h * crossing(f00, f01));
+                } else {
+                    segment(x0 + w * crossing(f00, f10), y0, x0, y0 + h * crossing(f00, f01));
+                    segment(x1, y0 + h * crossing(f10, f11), x0 + w * crossing(f01, f11), y1);
+                }
+                return;
+            }
+
+            double ax = Double.NaN;
+            double ay = Double.NaN;
+            if (p00 != p10) {
+                ax = x0 + w * crossing(f00, f10);
+                ay = y0;
+            }
+            if (p10 != p11) {
+                double bx = x1;
+                double by = y0 + h * crossing(f10, f11);
+                if (Double.isNaN(ax)) {
+                    ax = bx;
+                    ay = by;
+                } else {
+                    segment(ax, ay, bx, by);
+                    return;
+                }
+            }
+            if (p01 != p11) {
+                double bx = x0 + w * crossing(f01, f11);
+                if (Double.isNaN(ax)) {
+                    ax = bx;
+                    ay = y1;
+                } else {
+                    segment(ax, ay, bx, y1);
+                    return;
+                }
+            }
+            segment(ax, ay, x0, y0 + h * crossing(f00, f01));
+        }
+
+        private void segment(double ax, double ay, double bx, double by) {
+            out.append(ax, ay);
+            out.append(bx, by);
+            out.appendBreak(bx);
+        }
+
+        private static double crossing(double a, double b) {
+            double t = a / (a - b);
+            return Double.isFinite(t) ? Math.max(0, Math.min(1, t)) : 0.5;
+        }
+
+        private static boolean changesSign(double f00, double f10, double f01, double f11) {
+            int nan = (Double.isNaN(f00) ? 1 : 0) + (Double.isNaN(f10) ? 1 : 0) + (Double.isNaN(f01) ? 1 : 0) + (Double.isNaN(f11) ? 1 : 0);
+            if (nan > 0) return nan < 4;
+            boolean positive = f00 > 0;
+            return positive != f10 > 0 || positive != f01 > 0 || positive != f11 > 0;
+        }
+
+        private double value(double x, double y) {
+            evaluations++;
+            return evaluate(curve, x, y);
+        }
+    }
+}
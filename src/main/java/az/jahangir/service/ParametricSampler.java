@@ -0,0 +1,134 @@
+package az.jahangir.service;
+
+import az.jahangir.model.ParametricCurve;
+import az.jahangir.model.SampleBuffer;
+import az.jahangir.model.Viewport;
+import lombok.Getter;
+
+public class ParametricSampler {
+
+    public static final double DEFAULT_TOLERANCE_PX = 0.5;
+
+    private static final int INITIAL_SEGMENTS = 64;
+    private static final int MAX_DEPTH = 20;
+    private static final int EDGE_DEPTH = 24;
+    private static final double MAX_CHORD_PX = 24;
+    private static final double JUMP_THRESHOLD_PX = 4;
+    private static final int MAX_EVALUATIONS = 500_000;
+
+    private final double[] point = new double[2];
+    private ParametricCurve curve;
+    private SampleBuffer out;
+    private Viewport viewport;
+    private double xScale;
+    private double yScale;
+    private double tolerance;
+    private int budget;
+    @Getter
+    private int evaluations;
+
+    public void sample(ParametricCurve curve, Viewport viewport, int plotWidth, int plotHeight, double tolerancePx, SampleBuffer out) {
+        this.curve = curve;
+        this.out = out;
+        this.viewport = viewport;
+        this.xScale = plotWidth / viewport.xRange();
+        this.yScale = plotHeight / viewport.yRange();
+        this.tolerance = tolerancePx;
+        this.budget = MAX_EVALUATIONS;
+        this.evaluations = 0;
+        out.clear();
+
+        double step = (curve.tMax() - curve.tMin()) / INITIAL_SEGMENTS;
+        double ta = curve.tMin();
+        evaluate(ta);
+        double xa = point[0];
+        double ya = point[1];
+        emit(xa, ya);
+        for (int s = 1; s <= INITIAL_SEGMENTS; s++) {
+            double tb = s == INITIAL_SEGMENTS ? curve.tMax() : curve.tMin() + s * step;
+            evaluate(tb);
+            double xb = point[0];
+            double yb = point[1];
+            refine(ta, xa, ya, tb, xb, yb, 0);
+            emit(xb, yb);
+            ta = tb;
+            xa = xb;
+            ya = yb;
+        }
+        this.curve = null;
+        this.out = null;
+    }
+
+    private void refine(double ta, double xa, double ya, double tb, double xb, double yb, int depth) {
+        if (budget <= 0) return;
+
+        boolean finiteA = isFinite(xa, ya);
+        boolean finiteB = isFinite(xb, yb);
+        if (!finiteA && !finiteB) return;
+
+        double tm = 0.5 * (ta + tb);
+        if (tm <= ta || tm >= tb) return;
+        if (finiteA != finiteB) {
+            if (depth >= EDGE_DEPTH) return;
+            evaluate(tm);
+            double xm = point[0];
+            double ym = point[1];
+            refine(ta, xa, ya, tm, xm, ym, depth + 1);
+            emit(xm, ym);
+            refine(tm, xm, ym, tb, xb, yb, depth + 1);
+            return;
+        }
+
+        double chord = Math.hypot((xb - xa) * xScale, (yb - ya) * yScale);
+        if (depth >= MAX_DEPTH) {
+            if (chord > JUMP_THRESHOLD_PX) {
+                out.appendBreak(xa);
+            }
+            return;
+        }
+
+        evaluate(tm);
+        double xm = point[0];
+        double ym = point[1];
+        if (isFinite(xm, ym)) {
+            if (isOffscreenOnOneSide(xa, xm, xb, viewport.xMin(), viewport.xMax())
+                    || isOffscreenOnOneSide(ya, ym, yb, viewport.yMin(), viewport.yMax())) {
+                return;
+            }
+            double deviation = Math.hypot((xm - 0.5 * (xa + xb)) * xScale, (ym - 0.5 * (ya + yb)) * yScale);
+            if (deviation <= tolerance && chord <= MAX_CHORD_PX) return;
+        }
+
+        refine(ta, xa, ya, tm, xm, ym, depth + 1);
+        emit(xm, ym);
+        refine(tm, xm, ym, tb, xb, yb, depth + 1);
+    }
+
+    private static boolean isOffscreenOnOneSide(double a, double m, double b, double min, double max) {
+        double margin = max - min;
+        return (a > max + margin && m > max + margin && b > max + margin) || (a < min - margin && m < min - margin && b < min - margin);
+    }
+
+    private void emit(double x, double y) {
+        if (isFinite(x, y)) {
+            out.append(x, y);
+        } else {
+            out.appendBreak(x);
+        }
+    }
+
+    private static boolean isFinite(double x, double y) {
+        return Double.isFinite(x) && Double.isFinite(y);
+    }
+
+    private void evaluate(double t) {
+        budget--;
+        evaluations++;
+        try {
+            curve.point().apply(t, point);
+        } catch (RuntimeException ex) {
+            point[0] = Double.NaN;
+            point[1] = Double.NaN;
+        }
+    }
+}
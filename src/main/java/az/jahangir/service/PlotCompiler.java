@@ -0,0 +1,95 @@
+package az.jahangir.service;
+
+import az.jahangir.model.PlaneCurve;
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.service.expression.DualEvaluator;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+public class PlotCompiler {
+
+    private static final List<PlotRequest> WARMUP_REQUESTS = List.of(
+            new PlotRequest("sin(x)^2 + log(x); x^3 - 2*x", true, true),
+            new PlotRequest("(cos(t), sin(t)) [0, 2pi]; r = 1 + cos(θ); x^2 + y^2 = 4", false, false));
+
+    private final ExecutorService executor;
+    private final AtomicLong generation = new AtomicLong();
+    private Future<?> inFlight;
+
+    public PlotCompiler() {
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "graph-compile");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void request(PlotRequest request, Consumer<CompiledPlot> consumer, Consumer<RuntimeException> errorConsumer) {
+        long requestGeneration = generation.incrementAndGet();
+        if (inFlight != null && !inFlight.isDone()) {
+            inFlight.cancel(false);
+        }
+        inFlight = executor.submit(() -> {
+            BooleanSupplier cancelled = () -> generation.get() != requestGeneration;
+            try {
+                CompiledPlot plot = compile(request, cancelled);
+                if (plot != null && !cancelled.getAsBoolean()) {
+                    consumer.accept(plot);
+                }
+            } catch (RuntimeException ex) {
+                if (!cancelled.getAsBoolean()) {
+                    errorConsumer.accept(ex);
+                }
+            }
+        });
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+        if (inFlight != null) {
+            inFlight.cancel(false);
+        }
+    }
+
+    public static CompiledPlot compile(PlotRequest request, BooleanSupplier cancelled) throws IllegalArgumentException {
+        String expression = request.expression();
+        boolean first = request.firstDerivative();
+        boolean second = request.secondDerivative();
+
+        List<PlottableFunction> functions = FunctionSetService.createFunctions(expression, first, second);
+        if (cancelled.getAsBoolean()) return null;
+        List<PlaneCurve> curves = FunctionSetService.createCurves(expression);
+        if (cancelled.getAsBoolean()) return null;
+
+        List<String> explicitExpressions = FunctionSetService.explicitExpressions(expression);
+        DualEvaluator trackingEvaluator = first && !explicitExpressions.isEmpty() ? trackingEvaluator(explicitExpressions.get(0)) : null;
+        return new CompiledPlot(request, functions, curves, trackingEvaluator);
+    }
+
+    public static void warmUp() {
+        for (PlotRequest request : WARMUP_REQUESTS) {
+            try {
+                CompiledPlot plot = compile(request, () -> false);
+                for (PlottableFunction function : plot.functions()) {
+                    function.evaluate(1);
+                }
+            } catch (RuntimeException ex) {
+                return;
+            }
+        }
+    }
+
+    private static DualEvaluator trackingEvaluator(String expression) {
+        try {
+            return FunctionParserService.dual(expression);
+        } catch (UnsupportedOperationException ex) {
+            return null;
+        }
+    }
+}
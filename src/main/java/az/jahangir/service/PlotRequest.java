@@ -0,0 +1,4 @@
+package az.jahangir.service;
+
+public record PlotRequest(String expression, boolean firstDerivative, boolean secondDerivative) {
+}
@@ -0,0 +1,63 @@
+package az.jahangir.service;
+
+import az.jahangir.model.AnchoredViewport;
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.SampleBuffer;
+import az.jahangir.model.Viewport;
+import lombok.Getter;
+
+import java.util.List;
+
+public class PrecisionSampler {
+
+    public static final int SAMPLES_PER_PIXEL = 2;
+    public static final int PREVIEW_SAMPLES_PER_PIXEL = 1;
+
+    private final double[] value = new double[2];
+    @Getter
+    private long lastEvaluationCount;
+
+    public void sample(List<PlottableFunction> functions, AnchoredViewport viewport, int plotWidth, List<SampleBuffer> buffers, boolean previewOnly) {
+        while (buffers.size() < functions.size()) {
+            buffers.add(new SampleBuffer());
+        }
+        lastEvaluationCount = 0;
+        int samplesPerPixel = previewOnly ? PREVIEW_SAMPLES_PER_PIXEL : SAMPLES_PER_PIXEL;
+        for (int f = 0; f < functions.size(); f++) {
+            sample(functions.get(f), viewport, Math.max(1, plotWidth) * samplesPerPixel, buffers.get(f));
+        }
+    }
+
+    private void sample(PlottableFunction function, AnchoredViewport viewport, int intervals, SampleBuffer out) {
+        out.clear();
+        Viewport offsets = viewport.offsets();
+        double xOrigin = viewport.xOrigin();
+        double yOrigin = viewport.yOrigin();
+        double step = offsets.xRange() / intervals;
+        for (int i = 0; i <= intervals; i++) {
+            double offset = i == intervals ? offsets.xMax() : offsets.xMin() + i * step;
+            double hi = xOrigin + offset;
+            double bb = hi - xOrigin;
+            double lo = (xOrigin - (hi - bb)) + (offset - bb);
+            double y = evaluate(function, hi, lo, yOrigin);
+            if (Double.isFinite(y)) {
+                out.append(offset, y);
+            } else {
+                out.appendBreak(offset);
+            }
+        }
+        lastEvaluationCount += intervals + 1;
+    }
+
+    private double evaluate(PlottableFunction function, double hi, double lo, double yOrigin) {
+        try {
+            if (!function.hasPrecise()) {
+                return function.evaluate(hi) - yOrigin;
+            }
+            function.precise().apply(hi, lo, value);
+            return (value[0] - yOrigin) + value[1];
+        } catch (RuntimeException ex) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package az.jahangir.service;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public record SampleFileHeader(String expression, double xMin, double xMax, long rowCount, List<String> columnNames, List<Color> columnColors) {
+
+    public static final int MAGIC = 0x46535047;
+    public static final int VERSION = 1;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public SampleFileHeader {
+        columnNames = List.copyOf(columnNames);
+        columnColors = List.copyOf(columnColors);
+        if (columnNames.size() != columnColors.size()) {
+            throw new IllegalArgumentException("Every column needs a name and a color");
+        }
+    }
+
+    public int columnCount() {
+        return columnNames.size();
+    }
+
+    public ByteBuffer encode() {
+        List<byte[]> strings = new ArrayList<>();
+        strings.add(expression.getBytes(StandardCharsets.UTF_8));
+        for (String name : columnNames) {
+            strings.add(name.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int size = 4 + 4 + 4 + 8 + 8 + 8;
+        for (byte[] string : strings) {
+            size += 4 + string.length;
+        }
+        size += 4 * columnColors.size();
+        size = align(size);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(BYTE_ORDER);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(columnNames.size()).putLong(rowCount).putDouble(xMin).putDouble(xMax);
+        for (byte[] string : strings) {
+            buffer.putInt(string.length).put(string);
+        }
+        for (Color color : columnColors) {
+            buffer.putInt(color.getRGB());
+        }
+        buffer.position(0);
+        return buffer;
+    }
+
+    public double step() {
+        return (xMax - xMin) / (rowCount - 1);
+    }
+
+    public long dataOffset() {
+        return encode().capacity();
+    }
+
+    public long columnOffset(int column) {
+        return dataOffset() + (long) column * rowCount * Double.BYTES;
+    }
+
+    public static SampleFileHeader decode(ByteBuffer buffer) throws IOException {
+        buffer.order(BYTE_ORDER);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a sample file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported sample file version: " + version);
+        }
+        int columnCount = buffer.getInt();
+        long rowCount = buffer.getLong();
+        double xMin = buffer.getDouble();
+        double xMax = buffer.getDouble();
+        String expression = readString(buffer);
+        List<String> columnNames = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            columnNames.add(readString(buffer));
+        }
+        List<Color> columnColors = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            columnColors.add(new Color(buffer.getInt(), true));
+        }
+        return new SampleFileHeader(expression, xMin, xMax, rowCount, columnNames, columnColors);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int align(int size) {
+        return (size + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+    }
+}
@@ -0,0 +1,70 @@
+package az.jahangir.service;
+
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.SampledCurve;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SampleFileReader {
+
+    private static final long MAX_HEADER_BYTES = 1 << 20;
+
+    @Getter
+    private final SampleFileHeader header;
+    private final DoubleBuffer[] columns;
+
+    private SampleFileReader(SampleFileHeader header, DoubleBuffer[] columns) {
+        this.header = header;
+        this.columns = columns;
+    }
+
+    public static SampleFileReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer headerBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_HEADER_BYTES));
+            SampleFileHeader header;
+            try {
+                header = SampleFileHeader.decode(headerBuffer);
+            } catch (RuntimeException ex) {
+                throw new IOException("Corrupt sample file header", ex);
+            }
+
+            long columnBytes = header.rowCount() * Double.BYTES;
+            if (header.rowCount() < 2 || columnBytes > Integer.MAX_VALUE) {
+                throw new IOException("Unsupported row count: " + header.rowCount());
+            }
+            if (size < header.columnOffset(header.columnCount())) {
+                throw new IOException("Sample file is truncated");
+            }
+
+            DoubleBuffer[] columns = new DoubleBuffer[header.columnCount()];
+            for (int column = 0; column < columns.length; column++) {
+                columns[column] = channel.map(FileChannel.MapMode.READ_ONLY, header.columnOffset(column), columnBytes)
+                        .order(SampleFileHeader.BYTE_ORDER)
+                        .asDoubleBuffer();
+            }
+            return new SampleFileReader(header, columns);
+        }
+    }
+
+    public DoubleBuffer column(int column) {
+        return columns[column].duplicate();
+    }
+
+    public List<PlottableFunction> toFunctions() {
+        List<PlottableFunction> functions = new ArrayList<>(columns.length - 1);
+        for (int column = 1; column < columns.length; column++) {
+            functions.add(new PlottableFunction(header.columnNames().get(column), header.columnColors().get(column),
+                    new SampledCurve(header.xMin(), header.step(), column(column))));
+        }
+        return functions;
+    }
+}
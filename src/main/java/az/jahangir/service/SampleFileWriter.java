@@ -0,0 +1,48 @@
+package az.jahangir.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class SampleFileWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final SampleFileHeader header;
+    private final long dataOffset;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(0);
+
+    public SampleFileWriter(Path path, SampleFileHeader header) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.header = header;
+        this.dataOffset = header.dataOffset();
+        ByteBuffer encoded = header.encode();
+        while (encoded.hasRemaining()) {
+            channel.write(encoded);
+        }
+    }
+
+    public void writeRows(long firstRow, double[][] columns, int count) throws IOException {
+        int bytes = count * Double.BYTES;
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(bytes).order(SampleFileHeader.BYTE_ORDER);
+        }
+
+        for (int column = 0; column < columns.length; column++) {
+            buffer.clear();
+            buffer.asDoubleBuffer().put(columns[column], 0, count);
+            buffer.limit(bytes);
+            long position = dataOffset + ((long) column * header.rowCount() + firstRow) * Double.BYTES;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
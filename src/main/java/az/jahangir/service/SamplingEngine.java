@@ -0,0 +1,467 @@
+package az.jahangir.service;
+
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.SampleBuffer;
+import az.jahangir.model.Viewport;
+import az.jahangir.service.expression.ExpressionBatch;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SamplingEngine {
+
+    public static final int DEFAULT_EVALUATIONS_PER_PIXEL = 6;
+
+    private static final double COARSE_STEP_PX = 4;
+    private static final int MIN_INTERVALS_PER_CHUNK = 16;
+    private static final int PREVIEW_LEVELS = 3;
+
+    private final ForkJoinPool pool;
+    @Getter
+    private final TileCache tileCache;
+    private final LongAdder evaluations = new LongAdder();
+    private final ThreadLocal<BatchScratch> batchScratch = ThreadLocal.withInitial(BatchScratch::new);
+    private final Grid grid = new Grid();
+    private final List<TileCache.Tile[]> functionTiles = new ArrayList<>();
+    private final List<TileCache.Tile> touched = new ArrayList<>();
+    @Getter
+    private int evaluationsPerPixel = DEFAULT_EVALUATIONS_PER_PIXEL;
+    @Getter
+    private long lastEvaluationCount;
+
+    public SamplingEngine() {
+        this(ForkJoinPool.commonPool(), new TileCache());
+    }
+
+    public SamplingEngine(ForkJoinPool pool, TileCache tileCache) {
+        this.pool = pool;
+        this.tileCache = tileCache;
+    }
+
+    public void setEvaluationsPerPixel(int evaluationsPerPixel) {
+        this.evaluationsPerPixel = Math.max(1, evaluationsPerPixel);
+    }
+
+    public void sample(List<PlottableFunction> functions, Viewport viewport, int plotWidth, int plotHeight, List<SampleBuffer> buffers) {
+        sample(functions, viewport, plotWidth, plotHeight, buffers, false);
+    }
+
+    public boolean sample(List<PlottableFunction> functions, Viewport viewport, int plotWidth, int plotHeight, List<SampleBuffer> buffers, boolean cachedOnly) {
+        while (buffers.size() < functions.size()) {
+            buffers.add(new SampleBuffer());
+        }
+        tileCache.retainFunctions(functions);
+        evaluations.reset();
+        lastEvaluationCount = 0;
+
+        if (functions.isEmpty() || plotWidth <= 0 || plotHeight <= 0) {
+            buffers.forEach(SampleBuffer::clear);
+            return true;
+        }
+
+        grid.update(viewport, plotWidth, plotHeight);
+        tileCache.beginFrame();
+        touched.clear();
+        boolean missing = false;
+        boolean complete = true;
+
+        for (int f = 0; f < functions.size(); f++) {
+            PlottableFunction function = functions.get(f);
+            TileCache.Tile[] tiles = tileArray(f, (int) (grid.lastTile - grid.firstTile + 1));
+            for (int t = 0; t < tiles.length; t++) {
+                TileCache.Tile tile = cachedOnly
+                        ? tileCache.peek(function, grid.level, grid.firstTile + t)
+                        : tileCache.acquire(function, grid.level, grid.firstTile + t);
+                tiles[t] = tile;
+                if (tile != null) touched.add(tile);
+            }
+            missing = missing || (!cachedOnly && !isReady(tiles, grid));
+        }
+
+        if (missing) {
+            List<Neighbours> neighbours = new ArrayList<>(functions.size());
+            for (PlottableFunction function : functions) {
+                neighbours.add(new Neighbours(
+                        new LevelTiles(tileCache, function, grid.level - 1, 2 * grid.firstIndex, 2 * grid.lastIndex),
+                        new LevelTiles(tileCache, function, grid.level + 1, Math.floorDiv(grid.firstIndex, 2), Math.floorDiv(grid.lastIndex, 2))));
+            }
+            computeMissing(functions, functionTiles, neighbours, grid);
+        }
+        if (!cachedOnly) {
+            tileCache.endFrame(touched);
+        }
+
+        for (int f = 0; f < functions.size(); f++) {
+            complete &= assemble(functions.get(f), functionTiles.get(f), grid, buffers.get(f), cachedOnly);
+        }
+        lastEvaluationCount = evaluations.sum();
+        return complete;
+    }
+
+    private TileCache.Tile[] tileArray(int function, int length) {
+        if (function < functionTiles.size() && functionTiles.get(function).length == length) {
+            return functionTiles.get(function);
+        }
+        TileCache.Tile[] tiles = new TileCache.Tile[length];
+        if (function < functionTiles.size()) {
+            functionTiles.set(function, tiles);
+        } else {
+            functionTiles.add(tiles);
+        }
+        return tiles;
+    }
+
+    private static boolean isReady(TileCache.Tile[] tiles, Grid grid) {
+        for (long k = grid.firstIndex; k <= grid.lastIndex; k++) {
+            TileCache.Entry entry = grid.entry(tiles, k);
+            if (!entry.hasValue) return false;
+            if (k < grid.lastIndex && !entry.hasInteriorFor(grid.yMin, grid.yMax, grid.yScale)) return false;
+        }
+        return true;
+    }
+
+    private void computeMissing(List<PlottableFunction> functions, List<TileCache.Tile[]> functionTiles, List<Neighbours> neighbours, Grid grid) {
+        int intervals = (int) Math.max(1, grid.lastIndex - grid.firstIndex);
+        int chunks = Math.max(1, Math.min(pool.getParallelism(), intervals / MIN_INTERVALS_PER_CHUNK));
+        int chunkBudget = evaluationsPerPixel * grid.plotWidth / chunks;
+
+        Map<ExpressionBatch, List<Integer>> batches = new LinkedHashMap<>();
+        for (int f = 0; f < functions.size(); f++) {
+            if (functions.get(f).evaluator() instanceof ExpressionBatch.Member member) {
+                batches.computeIfAbsent(member.batch(), b -> new ArrayList<>()).add(f);
+            }
+        }
+
+        List<RecursiveAction> endpointTasks = new ArrayList<>();
+        List<RecursiveAction> interiorTasks = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            long from = grid.firstIndex + (long) intervals * c / chunks;
+            long to = grid.firstIndex + (long) intervals * (c + 1) / chunks;
+            long endpointTo = c == chunks - 1 ? to + 1 : to;
+
+            for (Map.Entry<ExpressionBatch, List<Integer>> batch : batches.entrySet()) {
+                List<AdaptiveSampler> samplers = new ArrayList<>(batch.getValue().size());
+                for (int f : batch.getValue()) {
+                    samplers.add(new AdaptiveSampler(functions.get(f), grid.yMin, grid.yMax, grid.xScale, grid.yScale, chunkBudget));
+                }
+                endpointTasks.add(action(() -> evaluateBatchEndpoints(batch.getKey(), batch.getValue(), functions, functionTiles, neighbours, grid, from, endpointTo)));
+                interiorTasks.add(action(() -> refineBatchIntervals(batch.getKey(), batch.getValue(), samplers, functions, functionTiles, grid, from, to)));
+            }
+            for (int f = 0; f < functions.size(); f++) {
+                PlottableFunction function = functions.get(f);
+                if (function.evaluator() instanceof ExpressionBatch.Member) continue;
+
+                TileCache.Tile[] tiles = functionTiles.get(f);
+                Neighbours functionNeighbours = neighbours.get(f);
+                AdaptiveSampler sampler = new AdaptiveSampler(function, grid.yMin, grid.yMax, grid.xScale, grid.yScale, chunkBudget);
+                endpointTasks.add(action(() -> evaluateEndpoints(function, tiles, functionNeighbours, grid, from, endpointTo)));
+                interiorTasks.add(action(() -> refineIntervals(sampler, tiles, grid, from, to, null, null, 0)));
+            }
+        }
+        run(endpointTasks);
+        run(interiorTasks);
+    }
+
+    private void evaluateEndpoints(PlottableFunction function, TileCache.Tile[] tiles, Neighbours neighbours, Grid grid, long from, long to) {
+        int count = 0;
+        for (long k = from; k < to; k++) {
+            TileCache.Entry entry = grid.entry(tiles, k);
+            if (entry.hasValue) continue;
+            if (!copyFromNeighbourLevel(neighbours, k, entry)) {
+                try {
+                    entry.value = function.evaluate(grid.x(k));
+                } catch (RuntimeException ex) {
+                    entry.value = Double.NaN;
+                }
+                count++;
+            }
+            entry.hasValue = true;
+        }
+        evaluations.add(count);
+    }
+
+    private void evaluateBatchEndpoints(ExpressionBatch batch, List<Integer> members, List<PlottableFunction> functions,
+                                        List<TileCache.Tile[]> functionTiles, List<Neighbours> neighbours, Grid grid, long from, long to) {
+        BatchScratch scratch = batchScratch.get();
+        scratch.ensure((int) (to - from), batch.outputCount());
+        double[] xs = scratch.xs;
+        long[] indices = scratch.indices;
+        int count = 0;
+
+        for (long k = from; k < to; k++) {
+            boolean missing = false;
+            for (int f : members) {
+                TileCache.Entry entry = grid.entry(functionTiles.get(f), k);
+                if (entry.hasValue) continue;
+                if (copyFromNeighbourLevel(neighbours.get(f), k, entry)) {
+                    entry.hasValue = true;
+                } else {
+                    missing = true;
+                }
+            }
+            if (missing) {
+                xs[count] = grid.x(k);
+                indices[count++] = k;
+            }
+        }
+        if (count == 0) return;
+
+        double[][] out = scratch.out;
+        batch.evaluate(xs, count, out);
+        for (int f : members) {
+            int output = ((ExpressionBatch.Member) functions.get(f).evaluator()).output();
+            TileCache.Tile[] tiles = functionTiles.get(f);
+            for (int i = 0; i < count; i++) {
+                TileCache.Entry entry = grid.entry(tiles, indices[i]);
+                if (entry.hasValue) continue;
+                entry.value = out[output][i];
+                entry.hasValue = true;
+            }
+        }
+        evaluations.add((long) count * members.size());
+    }
+
+    private static boolean copyFromNeighbourLevel(Neighbours neighbours, long k, TileCache.Entry entry) {
+        TileCache.Entry finer = neighbours.finer().entry(2 * k);
+        if (finer != null && finer.hasValue) {
+            entry.value = finer.value;
+            return true;
+        }
+        if ((k & 1) == 0) {
+            TileCache.Entry coarser = neighbours.coarser().entry(k / 2);
+            if (coarser != null && coarser.hasValue) {
+                entry.value = coarser.value;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TileCache.Entry lookup(PlottableFunction function, int level, long index) {
+        TileCache.Tile tile = tileCache.peek(function, level, Math.floorDiv(index, TileCache.TILE_SIZE));
+        return tile == null ? null : tile.entries[Math.floorMod(index, TileCache.TILE_SIZE)];
+    }
+
+    private void refineBatchIntervals(ExpressionBatch batch, List<Integer> members, List<AdaptiveSampler> samplers, List<PlottableFunction> functions,
+                                      List<TileCache.Tile[]> functionTiles, Grid grid, long from, long to) {
+        BatchScratch scratch = batchScratch.get();
+        scratch.ensure((int) (to - from), batch.outputCount());
+        double[] xs = scratch.xs;
+        long[] indices = scratch.indices;
+        int count = 0;
+
+        for (long k = from; k < to; k++) {
+            for (int f : members) {
+                if (needsRefinement(functionTiles.get(f), grid, k)) {
+                    xs[count] = 0.5 * (grid.x(k) + grid.x(k + 1));
+                    indices[count++] = k;
+                    break;
+                }
+            }
+        }
+        if (count > 0) {
+            batch.evaluate(xs, count, scratch.out);
+            evaluations.add((long) count * members.size());
+        }
+
+        for (int m = 0; m < members.size(); m++) {
+            int f = members.get(m);
+            int output = ((ExpressionBatch.Member) functions.get(f).evaluator()).output();
+            refineIntervals(samplers.get(m), functionTiles.get(f), grid, from, to, indices, scratch.out[output], count);
+        }
+    }
+
+    private static boolean needsRefinement(TileCache.Tile[] tiles, Grid grid, long k) {
+        TileCache.Entry entry = grid.entry(tiles, k);
+        if (entry.hasInteriorFor(grid.yMin, grid.yMax, grid.yScale)) return false;
+        return Double.isFinite(entry.value) || Double.isFinite(grid.entry(tiles, k + 1).value);
+    }
+
+    private void refineIntervals(AdaptiveSampler sampler, TileCache.Tile[] tiles, Grid grid, long from, long to,
+                                 long[] midpointIndices, double[] midpoints, int midpointCount) {
+        int i = 0;
+        for (long k = from; k < to; k++) {
+            TileCache.Entry entry = grid.entry(tiles, k);
+            if (entry.hasInteriorFor(grid.yMin, grid.yMax, grid.yScale)) continue;
+
+            TileCache.Entry next = grid.entry(tiles, k + 1);
+            while (i < midpointCount && midpointIndices[i] < k) i++;
+            entry.complete = i < midpointCount && midpointIndices[i] == k
+                    ? sampler.refine(grid.x(k), entry.value, grid.x(k + 1), next.value, midpoints[i], entry.interior)
+                    : sampler.refine(grid.x(k), entry.value, grid.x(k + 1), next.value, entry.interior);
+            entry.windowMin = grid.yMin;
+            entry.windowMax = grid.yMax;
+            entry.yScale = grid.yScale;
+            entry.hasInterior = true;
+        }
+        evaluations.add(sampler.getEvaluations());
+    }
+
+    private boolean assemble(PlottableFunction function, TileCache.Tile[] tiles, Grid grid, SampleBuffer buffer, boolean cachedOnly) {
+        buffer.clear();
+        boolean complete = true;
+        long k = grid.firstIndex;
+
+        while (k <= grid.lastIndex) {
+            boolean last = k == grid.lastIndex;
+            TileCache.Entry entry = grid.entry(tiles, k);
+            TileCache.Entry next = last ? null : grid.entry(tiles, k + 1);
+            boolean valueReady = entry != null && entry.hasValue;
+            boolean interiorReady = last || (valueReady && next != null && next.hasValue
+                    && entry.hasInteriorFor(grid.yMin, grid.yMax, grid.yScale));
+
+            if (valueReady && interiorReady) {
+                buffer.append(grid.x(k), entry.value);
+                if (!last) buffer.appendAll(entry.interior);
+                k++;
+                continue;
+            }
+            if (!cachedOnly) {
+                buffer.append(grid.x(k), valueReady ? entry.value : Double.NaN);
+                k++;
+                continue;
+            }
+
+            complete = false;
+            long end = Math.max(k + 1, Math.min(grid.lastIndex, (Math.floorDiv(k, TileCache.TILE_SIZE) + 1) * TileCache.TILE_SIZE));
+            if (!appendPreview(function, grid, grid.x(k), grid.x(end), buffer)) {
+                buffer.appendBreak(grid.x(k));
+            }
+            k = end;
+        }
+        return complete;
+    }
+
+    private boolean appendPreview(PlottableFunction function, Grid grid, double x0, double x1, SampleBuffer buffer) {
+        for (int distance = 1; distance <= PREVIEW_LEVELS; distance++) {
+            for (int level : new int[]{grid.level + distance, grid.level - distance}) {
+                double step = Math.scalb(1.0, level);
+                long first = (long) Math.floor(x0 / step);
+                long last = (long) Math.ceil(x1 / step);
+                if (isCached(function, level, first, last)) {
+                    for (long j = first; j < last; j++) {
+                        TileCache.Entry entry = lookup(function, level, j);
+                        buffer.append(j * step, entry.value);
+                        if (entry.hasInterior) buffer.appendAll(entry.interior);
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isCached(PlottableFunction function, int level, long first, long last) {
+        for (long j = first; j <= last; j++) {
+            TileCache.Entry entry = lookup(function, level, j);
+            if (entry == null || !entry.hasValue) return false;
+        }
+        return true;
+    }
+
+    private void run(List<RecursiveAction> tasks) {
+        if (tasks.size() == 1) {
+            tasks.get(0).invoke();
+            return;
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    private static RecursiveAction action(Runnable body) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                body.run();
+            }
+        };
+    }
+
+    private record Neighbours(LevelTiles finer, LevelTiles coarser) {
+    }
+
+    private static class LevelTiles {
+
+        final long firstTile;
+        final TileCache.Tile[] tiles;
+
+        LevelTiles(TileCache cache, PlottableFunction function, int level, long firstIndex, long lastIndex) {
+            this.firstTile = Math.floorDiv(firstIndex, TileCache.TILE_SIZE);
+            this.tiles = new TileCache.Tile[(int) (Math.floorDiv(lastIndex, TileCache.TILE_SIZE) - firstTile + 1)];
+            for (int t = 0; t < tiles.length; t++) {
+                tiles[t] = cache.peek(function, level, firstTile + t);
+            }
+        }
+
+        TileCache.Entry entry(long index) {
+            TileCache.Tile tile = tiles[(int) (Math.floorDiv(index, TileCache.TILE_SIZE) - firstTile)];
+            return tile == null ? null : tile.entries[Math.floorMod(index, TileCache.TILE_SIZE)];
+        }
+    }
+
+    private static class BatchScratch {
+
+        double[] xs = new double[0];
+        long[] indices = new long[0];
+        double[][] out = new double[0][];
+
+        void ensure(int count, int outputs) {
+            if (xs.length < count) {
+                xs = new double[count];
+                indices = new long[count];
+                out = new double[0][];
+            }
+            if (out.length < outputs) {
+                out = new double[outputs][xs.length];
+            }
+        }
+    }
+
+    private static class Grid {
+
+        int plotWidth;
+        double xScale;
+        double yScale;
+        double yMin;
+        double yMax;
+        int level;
+        double step;
+        long firstIndex;
+        long lastIndex;
+        long firstTile;
+        long lastTile;
+
+        void update(Viewport viewport, int plotWidth, int plotHeight) {
+            this.plotWidth = plotWidth;
+            this.xScale = plotWidth / viewport.xRange();
+            this.yScale = plotHeight / viewport.yRange();
+            this.yMin = viewport.yMin();
+            this.yMax = viewport.yMax();
+            this.level = Math.getExponent(COARSE_STEP_PX / xScale);
+            this.step = Math.scalb(1.0, level);
+            this.firstIndex = (long) Math.floor(viewport.xMin() / step);
+            this.lastIndex = Math.max(firstIndex + 1, (long) Math.ceil(viewport.xMax() / step));
+            this.firstTile = Math.floorDiv(firstIndex, TileCache.TILE_SIZE);
+            this.lastTile = Math.floorDiv(lastIndex, TileCache.TILE_SIZE);
+        }
+
+        double x(long k) {
+            return k * step;
+        }
+
+        TileCache.Entry entry(TileCache.Tile[] tiles, long k) {
+            TileCache.Tile tile = tiles[(int) (Math.floorDiv(k, TileCache.TILE_SIZE) - firstTile)];
+            return tile == null ? null : tile.entries[Math.floorMod(k, TileCache.TILE_SIZE)];
+        }
+    }
+}
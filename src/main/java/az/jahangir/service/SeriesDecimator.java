@@ -0,0 +1,66 @@
+package az.jahangir.service;
+
+import az.jahangir.model.DataSeries;
+import az.jahangir.model.MinMaxPyramid;
+import az.jahangir.model.SampleBuffer;
+import az.jahangir.model.Viewport;
+
+public class SeriesDecimator {
+
+    private final int[] extremes = new int[3];
+
+    public void decimate(DataSeries series, Viewport viewport, int plotWidth, SampleBuffer out) {
+        out.clear();
+        int size = series.size();
+        if (size == 0 || plotWidth <= 0) return;
+
+        double xMin = viewport.xMin();
+        double columnWidth = viewport.xRange() / plotWidth;
+        int first = series.lowerBound(xMin);
+        int last = series.lowerBound(viewport.xMax(), first, size);
+
+        if (first > 0) {
+            appendPoint(series, first - 1, out);
+        }
+
+        int from = first;
+        for (int column = 1; column <= plotWidth && from < last; column++) {
+            int to = column == plotWidth ? last : series.lowerBound(xMin + column * columnWidth, from, last);
+            appendColumn(series, from, to, out);
+            from = to;
+        }
+
+        if (last < size) {
+            appendPoint(series, last, out);
+        }
+    }
+
+    private void appendColumn(DataSeries series, int from, int to, SampleBuffer out) {
+        if (to - from <= 4) {
+            for (int i = from; i < to; i++) {
+                appendPoint(series, i, out);
+            }
+            return;
+        }
+
+        series.getPyramid().query(from, to, extremes);
+        int min = extremes[MinMaxPyramid.MIN];
+        int max = extremes[MinMaxPyramid.MAX];
+
+        appendPoint(series, from, out);
+        if (min >= 0) {
+            int earlier = Math.min(min, max);
+            int later = Math.max(min, max);
+            if (earlier > from) appendPoint(series, earlier, out);
+            if (extremes[MinMaxPyramid.GAP] != 0) out.appendBreak(series.x(earlier));
+            if (later > earlier && later < to - 1) appendPoint(series, later, out);
+        } else {
+            out.appendBreak(series.x(from));
+        }
+        appendPoint(series, to - 1, out);
+    }
+
+    private void appendPoint(DataSeries series, int index, SampleBuffer out) {
+        out.append(series.x(index), series.y(index));
+    }
+}
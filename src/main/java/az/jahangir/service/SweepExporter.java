@@ -0,0 +1,139 @@
+package az.jahangir.service;
+
+import az.jahangir.model.PlottableFunction;
+
+import java.awt.Color;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+public class SweepExporter {
+
+    public static final int CHUNK_ROWS = 1 << 16;
+
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private final ForkJoinPool pool;
+
+    public SweepExporter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public SweepExporter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void exportCsv(List<PlottableFunction> functions, double xMin, double xMax, long rows, Path output) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder("x");
+            for (PlottableFunction function : functions) {
+                line.append(',').append(function.name());
+            }
+            writer.append(line).append('\n');
+
+            sweep(functions, xMin, xMax, rows, chunk -> {
+                line.setLength(0);
+                for (int i = 0; i < chunk.count; i++) {
+                    line.append(chunk.xs[i]);
+                    for (double[] column : chunk.columns) {
+                        line.append(',').append(column[i]);
+                    }
+                    line.append('\n');
+                    if (line.length() >= WRITE_BUFFER_BYTES) {
+                        writer.append(line);
+                        line.setLength(0);
+                    }
+                }
+                writer.append(line);
+            });
+        }
+    }
+
+    public void exportBinary(List<PlottableFunction> functions, String expression, double xMin, double xMax, long rows, Path output) throws IOException {
+        List<String> columnNames = new ArrayList<>(functions.size() + 1);
+        List<Color> columnColors = new ArrayList<>(functions.size() + 1);
+        columnNames.add("x");
+        columnColors.add(Color.BLACK);
+        for (PlottableFunction function : functions) {
+            columnNames.add(function.name());
+            columnColors.add(function.color());
+        }
+
+        SampleFileHeader header = new SampleFileHeader(expression, xMin, xMax, rows, columnNames, columnColors);
+        try (SampleFileWriter writer = new SampleFileWriter(output, header)) {
+            double[][] fileColumns = new double[columnNames.size()][];
+            sweep(functions, xMin, xMax, rows, chunk -> {
+                fileColumns[0] = chunk.xs;
+                System.arraycopy(chunk.columns, 0, fileColumns, 1, chunk.columns.length);
+                writer.writeRows(chunk.firstRow, fileColumns, chunk.count);
+            });
+        }
+    }
+
+    private void sweep(List<PlottableFunction> functions, double xMin, double xMax, long rows, ChunkConsumer consumer) throws IOException {
+        if (rows < 2) {
+            throw new IllegalArgumentException("At least two samples are required");
+        }
+
+        ColumnEvaluator evaluator = new ColumnEvaluator(functions, pool);
+        double step = (xMax - xMin) / (rows - 1);
+        int chunkRows = (int) Math.min(CHUNK_ROWS, rows);
+        Chunk[] chunks = { new Chunk(chunkRows, evaluator.columnCount()), new Chunk(chunkRows, evaluator.columnCount()) };
+
+        CompletableFuture<Chunk> pending = evaluate(evaluator, chunks[0], xMin, step, 0, rows);
+        int index = 0;
+        for (long row = 0; row < rows; row += chunkRows) {
+            Chunk current = join(pending);
+            long nextRow = row + chunkRows;
+            if (nextRow < rows) {
+                index ^= 1;
+                pending = evaluate(evaluator, chunks[index], xMin, step, nextRow, rows);
+            }
+            consumer.accept(current);
+        }
+    }
+
+    private CompletableFuture<Chunk> evaluate(ColumnEvaluator evaluator, Chunk chunk, double xMin, double step, long firstRow, long rows) {
+        return CompletableFuture.supplyAsync(() -> {
+            chunk.firstRow = firstRow;
+            chunk.count = (int) Math.min(chunk.xs.length, rows - firstRow);
+            evaluator.evaluateGrid(xMin, step, firstRow, chunk.count, chunk.xs, chunk.columns);
+            return chunk;
+        }, pool);
+    }
+
+    private static Chunk join(CompletableFuture<Chunk> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw ex;
+        }
+    }
+
+    private static class Chunk {
+
+        private final double[] xs;
+        private final double[][] columns;
+        private long firstRow;
+        private int count;
+
+        Chunk(int capacity, int columnCount) {
+            this.xs = new double[capacity];
+            this.columns = new double[columnCount][capacity];
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkConsumer {
+        void accept(Chunk chunk) throws IOException;
+    }
+}
@@ -0,0 +1,200 @@
+package az.jahangir.service;
+
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.SampleBuffer;
+import lombok.Getter;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TileCache {
+
+    public static final int TILE_SIZE = 64;
+    public static final long DEFAULT_MEMORY_CAP_BYTES = 64L << 20;
+
+    private static final long TILE_OVERHEAD_BYTES = 128;
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+    private static final int INTERIOR_INITIAL_CAPACITY = 4;
+
+    private final LinkedHashMap<TileKey, Tile> tiles = new LinkedHashMap<>(64, 0.75f, true);
+    private final TileKey probe = new TileKey();
+    private List<PlottableFunction> retained = List.of();
+    @Getter
+    private long memoryCapBytes;
+    @Getter
+    private long bytes;
+    @Getter
+    private long hits;
+    @Getter
+    private long misses;
+    @Getter
+    private long evictions;
+    private long frame;
+
+    public TileCache() {
+        this(DEFAULT_MEMORY_CAP_BYTES);
+    }
+
+    public TileCache(long memoryCapBytes) {
+        this.memoryCapBytes = memoryCapBytes;
+    }
+
+    public synchronized void setMemoryCapBytes(long memoryCapBytes) {
+        this.memoryCapBytes = memoryCapBytes;
+        evict();
+    }
+
+    public synchronized int getTileCount() {
+        return tiles.size();
+    }
+
+    public synchronized void beginFrame() {
+        frame++;
+    }
+
+    public synchronized Tile acquire(PlottableFunction function, int level, long tileIndex) {
+        Tile tile = tiles.get(probe.set(function, level, tileIndex));
+        if (tile == null) {
+            misses++;
+            tile = new Tile(level, tileIndex);
+            tiles.put(probe.copy(), tile);
+            bytes += tile.bytes;
+        } else {
+            hits++;
+        }
+        tile.frame = frame;
+        return tile;
+    }
+
+    public synchronized Tile peek(PlottableFunction function, int level, long tileIndex) {
+        Tile tile = tiles.get(probe.set(function, level, tileIndex));
+        if (tile != null) {
+            tile.frame = frame;
+        }
+        return tile;
+    }
+
+    public synchronized void endFrame(List<Tile> touched) {
+        for (int i = 0; i < touched.size(); i++) {
+            Tile tile = touched.get(i);
+            long size = tile.estimateBytes();
+            bytes += size - tile.bytes;
+            tile.bytes = size;
+        }
+        evict();
+    }
+
+    public synchronized void retainFunctions(List<PlottableFunction> functions) {
+        if (isRetained(functions)) return;
+        retained = List.copyOf(functions);
+        Set<PlottableFunction> live = new HashSet<>(functions);
+        Iterator<Map.Entry<TileKey, Tile>> it = tiles.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<TileKey, Tile> entry = it.next();
+            if (!live.contains(entry.getKey().function)) {
+                bytes -= entry.getValue().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    private boolean isRetained(List<PlottableFunction> functions) {
+        if (functions.size() != retained.size()) return false;
+        for (int i = 0; i < functions.size(); i++) {
+            if (functions.get(i) != retained.get(i)) return false;
+        }
+        return true;
+    }
+
+    public synchronized void clear() {
+        tiles.clear();
+        bytes = 0;
+    }
+
+    private void evict() {
+        if (bytes <= memoryCapBytes) return;
+        Iterator<Tile> it = tiles.values().iterator();
+        while (bytes > memoryCapBytes && it.hasNext()) {
+            Tile tile = it.next();
+            if (tile.frame == frame) break;
+            bytes -= tile.bytes;
+            evictions++;
+            it.remove();
+        }
+    }
+
+    private static final class TileKey {
+
+        PlottableFunction function;
+        int level;
+        long tileIndex;
+
+        TileKey set(PlottableFunction function, int level, long tileIndex) {
+            this.function = function;
+            this.level = level;
+            this.tileIndex = tileIndex;
+            return this;
+        }
+
+        TileKey copy() {
+            return new TileKey().set(function, level, tileIndex);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TileKey other && level == other.level && tileIndex == other.tileIndex && function.equals(other.function);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * function.hashCode() + level) + Long.hashCode(tileIndex);
+        }
+    }
+
+    public static class Tile {
+
+        final int level;
+        final long index;
+        final Entry[] entries = new Entry[TILE_SIZE];
+        long frame;
+        long bytes;
+
+        Tile(int level, long index) {
+            this.level = level;
+            this.index = index;
+            for (int i = 0; i < TILE_SIZE; i++) {
+                entries[i] = new Entry();
+            }
+            this.bytes = estimateBytes();
+        }
+
+        long estimateBytes() {
+            long size = TILE_OVERHEAD_BYTES;
+            for (Entry entry : entries) {
+                size += ENTRY_OVERHEAD_BYTES + 16L * entry.interior.capacity();
+            }
+            return size;
+        }
+    }
+
+    static class Entry {
+
+        boolean hasValue;
+        double value;
+        boolean hasInterior;
+        boolean complete;
+        double windowMin;
+        double windowMax;
+        double yScale;
+        final SampleBuffer interior = new SampleBuffer(INTERIOR_INITIAL_CAPACITY);
+
+        boolean hasInteriorFor(double yMin, double yMax, double yScale) {
+            if (!hasInterior || yScale > this.yScale * 1.5 || yScale < this.yScale / 4) return false;
+            return complete || (windowMin == yMin && windowMax == yMax && this.yScale == yScale);
+        }
+    }
+}
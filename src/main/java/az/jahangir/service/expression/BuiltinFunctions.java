@@ -0,0 +1,78 @@
+package az.jahangir.service.expression;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+public final class BuiltinFunctions {
+
+    public static final Map<String, Double> CONSTANTS = Map.of(
+            "pi", Math.PI,
+            "π", Math.PI,
+            "e", Math.E,
+            "φ", 1.61803398874d
+    );
+
+    private static final Map<String, DoubleUnaryOperator> UNARY = Map.ofEntries(
+            Map.entry("sin", Math::sin),
+            Map.entry("cos", Math::cos),
+            Map.entry("tan", Math::tan),
+            Map.entry("cot", x -> 1d / Math.tan(x)),
+            Map.entry("asin", Math::asin),
+            Map.entry("acos", Math::acos),
+            Map.entry("atan", Math::atan),
+            Map.entry("sinh", Math::sinh),
+            Map.entry("cosh", Math::cosh),
+            Map.entry("tanh", Math::tanh),
+            Map.entry("log", Math::log),
+            Map.entry("log2", x -> Math.log(x) / Math.log(2d)),
+            Map.entry("log10", Math::log10),
+            Map.entry("log1p", Math::log1p),
+            Map.entry("exp", Math::exp),
+            Map.entry("expm1", Math::expm1),
+            Map.entry("sqrt", Math::sqrt),
+            Map.entry("cbrt", Math::cbrt),
+            Map.entry("abs", Math::abs),
+            Map.entry("floor", Math::floor),
+            Map.entry("ceil", Math::ceil),
+            Map.entry("signum", Math::signum)
+    );
+
+    private static final Map<String, DoubleBinaryOperator> BINARY = Map.of(
+            "pow", Math::pow
+    );
+
+    private static final Set<Character> OPERATORS = Set.of('+', '-', '*', '/', '^', '%');
+
+    private BuiltinFunctions() {
+    }
+
+    public static boolean isSupported(String name, int arity) {
+        return arity == 1 ? UNARY.containsKey(name) : arity == 2 && BINARY.containsKey(name);
+    }
+
+    public static boolean isOperator(char symbol) {
+        return OPERATORS.contains(symbol);
+    }
+
+    public static DoubleUnaryOperator unary(String name) {
+        return UNARY.get(name);
+    }
+
+    public static DoubleBinaryOperator binary(String name) {
+        return BINARY.get(name);
+    }
+
+    public static double applyOperator(char operator, double left, double right) {
+        return switch (operator) {
+            case '+' -> left + right;
+            case '-' -> left - right;
+            case '*' -> left * right;
+            case '/' -> left / right;
+            case '^' -> Math.pow(left, right);
+            case '%' -> left % right;
+            default -> throw new UnsupportedOperationException("Unsupported operator: " + operator);
+        };
+    }
+}
@@ -0,0 +1,440 @@
+package az.jahangir.service.expression;
+
+public final class DoubleDouble {
+
+    public static final double PI_HI = 3.141592653589793;
+    public static final double PI_LO = 1.2246467991473532e-16;
+    public static final double E_HI = 2.718281828459045;
+    public static final double E_LO = 1.4456468917292502e-16;
+
+    private static final double HALF_PI_HI = 1.5707963267948966;
+    private static final double HALF_PI_LO = 6.123233995736766e-17;
+    private static final double HALF_PI_LO2 = -1.4973849048591698e-33;
+    private static final double LN2_HI = 0.6931471805599453;
+    private static final double LN2_LO = 2.3190468138462996e-17;
+    private static final double LN10_HI = 2.302585092994046;
+    private static final double LN10_LO = -2.1707562233822494e-16;
+    private static final double EXP_MAX = 709.782712893384;
+    private static final double EXP_MIN = -745.1332191019412;
+    private static final double EXPM1_DIRECT_LIMIT = 0.34;
+    private static final int EXP_SQUARINGS = 10;
+    private static final int EXP_TERMS = 9;
+    private static final int TRIG_HALVINGS = 5;
+    private static final int TRIG_TERMS = 8;
+
+    private DoubleDouble() {
+    }
+
+    public static void add(double ahi, double alo, double bhi, double blo, double[] r) {
+        double s = ahi + bhi;
+        if (!Double.isFinite(s)) {
+            set(s, r);
+            return;
+        }
+        double v = s - ahi;
+        double e = (ahi - (s - v)) + (bhi - v);
+        double t = alo + blo;
+        double w = t - alo;
+        double f = (alo - (t - w)) + (blo - w);
+        e += t;
+        double hi = s + e;
+        e = e - (hi - s);
+        normalize(hi, e + f, r);
+    }
+
+    public static void subtract(double ahi, double alo, double bhi, double blo, double[] r) {
+        add(ahi, alo, -bhi, -blo, r);
+    }
+
+    public static void multiply(double ahi, double alo, double bhi, double blo, double[] r) {
+        double p = ahi * bhi;
+        if (!Double.isFinite(p)) {
+            set(p, r);
+            return;
+        }
+        normalize(p, Math.fma(ahi, bhi, -p) + (ahi * blo + alo * bhi), r);
+    }
+
+    public static void divide(double ahi, double alo, double bhi, double blo, double[] r) {
+        double q1 = ahi / bhi;
+        if (!Double.isFinite(q1)) {
+            set(q1, r);
+            return;
+        }
+        double p1 = q1 * bhi;
+        double p2 = Math.fma(q1, bhi, -p1);
+        double s = (ahi - p1) - p2 + alo - q1 * blo;
+        normalize(q1, s / bhi, r);
+    }
+
+    public static void sqrt(double hi, double lo, double[] r) {
+        if (hi <= 0 || !Double.isFinite(hi)) {
+            set(hi == 0 ? 0 : Math.sqrt(hi), r);
+            return;
+        }
+        double y = Math.sqrt(hi);
+        double square = y * y;
+        double residual = (hi - square) - Math.fma(y, y, -square) + lo;
+        normalize(y, residual / (2 * y), r);
+    }
+
+    public static void cbrt(double hi, double lo, double[] r) {
+        double y = Math.cbrt(hi);
+        if (y == 0 || !Double.isFinite(y)) {
+            set(y, r);
+            return;
+        }
+        multiply(y, 0, y, 0, r);
+        double square = r[0];
+        multiply(r[0], r[1], y, 0, r);
+        subtract(r[0], r[1], hi, lo, r);
+        normalize(y, -r[0] / (3 * square), r);
+    }
+
+    public static void power(double ahi, double alo, double bhi, double blo, double[] r) {
+        if (blo == 0 && bhi == Math.rint(bhi) && Math.abs(bhi) <= Integer.MAX_VALUE) {
+            power(ahi, alo, (int) bhi, r);
+            return;
+        }
+        if (ahi <= 0) {
+            set(Math.pow(ahi, bhi), r);
+            return;
+        }
+        log(ahi, alo, r);
+        multiply(r[0], r[1], bhi, blo, r);
+        exp(r[0], r[1], r);
+    }
+
+    public static void power(double hi, double lo, int exponent, double[] r) {
+        if (exponent == 0) {
+            set(1, r);
+            return;
+        }
+        long n = Math.abs((long) exponent);
+        double baseHi = hi;
+        double baseLo = lo;
+        double resultHi = 1;
+        double resultLo = 0;
+        while (n > 0) {
+            if ((n & 1) != 0) {
+                multiply(resultHi, resultLo, baseHi, baseLo, r);
+                resultHi = r[0];
+                resultLo = r[1];
+            }
+            n >>= 1;
+            if (n > 0) {
+                multiply(baseHi, baseLo, baseHi, baseLo, r);
+                baseHi = r[0];
+                baseLo = r[1];
+            }
+        }
+        if (exponent < 0) {
+            divide(1, 0, resultHi, resultLo, r);
+        } else {
+            r[0] = resultHi;
+            r[1] = resultLo;
+        }
+    }
+
+    public static void remainder(double ahi, double alo, double bhi, double blo, double[] r) {
+        divide(ahi, alo, bhi, blo, r);
+        if (r[0] < 0) {
+            ceil(r[0], r[1], r);
+        } else {
+            floor(r[0], r[1], r);
+        }
+        multiply(r[0], r[1], bhi, blo, r);
+        subtract(ahi, alo, r[0], r[1], r);
+    }
+
+    public static void exp(double hi, double lo, double[] r) {
+        if (Double.isNaN(hi) || hi > EXP_MAX || hi < EXP_MIN) {
+            set(Math.exp(hi), r);
+            return;
+        }
+        double k = Math.rint(hi / LN2_HI);
+        multiply(k, 0, LN2_HI, LN2_LO, r);
+        subtract(hi, lo, r[0], r[1], r);
+        expm1Reduced(r[0], r[1], r);
+        add(r[0], r[1], 1, 0, r);
+        r[0] = Math.scalb(r[0], (int) k);
+        r[1] = Math.scalb(r[1], (int) k);
+    }
+
+    public static void expm1(double hi, double lo, double[] r) {
+        if (Math.abs(hi) < EXPM1_DIRECT_LIMIT) {
+            expm1Reduced(hi, lo, r);
+            return;
+        }
+        exp(hi, lo, r);
+        add(r[0], r[1], -1, 0, r);
+    }
+
+    private static void expm1Reduced(double hi, double lo, double[] r) {
+        double xh = Math.scalb(hi, -EXP_SQUARINGS);
+        double xl = Math.scalb(lo, -EXP_SQUARINGS);
+        double sumHi = xh;
+        double sumLo = xl;
+        double termHi = xh;
+        double termLo = xl;
+        for (int n = 2; n <= EXP_TERMS; n++) {
+            multiply(termHi, termLo, xh, xl, r);
+            divide(r[0], r[1], n, 0, r);
+            termHi = r[0];
+            termLo = r[1];
+            add(sumHi, sumLo, termHi, termLo, r);
+            sumHi = r[0];
+            sumLo = r[1];
+        }
+        for (int i = 0; i < EXP_SQUARINGS; i++) {
+            add(sumHi, sumLo, 2, 0, r);
+            multiply(sumHi, sumLo, r[0], r[1], r);
+            sumHi = r[0];
+            sumLo = r[1];
+        }
+        r[0] = sumHi;
+        r[1] = sumLo;
+    }
+
+    public static void log(double hi, double lo, double[] r) {
+        if (hi <= 0 || !Double.isFinite(hi)) {
+            set(Math.log(hi), r);
+            return;
+        }
+        add(hi, lo, -1, 0, r);
+        refineLog(Math.abs(r[0]) < 0.5 ? Math.log1p(r[0]) : Math.log(hi), r[0], r[1], r);
+    }
+
+    public static void log2(double hi, double lo, double[] r) {
+        log(hi, lo, r);
+        divide(r[0], r[1], LN2_HI, LN2_LO, r);
+    }
+
+    public static void log10(double hi, double lo, double[] r) {
+        log(hi, lo, r);
+        divide(r[0], r[1], LN10_HI, LN10_LO, r);
+    }
+
+    public static void log1p(double hi, double lo, double[] r) {
+        if (hi <= -1 || !Double.isFinite(hi)) {
+            set(Math.log1p(hi), r);
+            return;
+        }
+        refineLog(Math.log1p(hi), hi, lo, r);
+    }
+
+    private static void refineLog(double y, double deltaHi, double deltaLo, double[] r) {
+        expm1(y, 0, r);
+        double mHi = r[0];
+        double mLo = r[1];
+        subtract(deltaHi, deltaLo, mHi, mLo, r);
+        double residualHi = r[0];
+        double residualLo = r[1];
+        add(mHi, mLo, 1, 0, r);
+        divide(residualHi, residualLo, r[0], r[1], r);
+        add(y, 0, r[0], r[1], r);
+    }
+
+    public static void sinCos(double hi, double lo, double[] r) {
+        if (!Double.isFinite(hi)) {
+            r[0] = Double.NaN;
+            r[1] = 0;
+            r[2] = Double.NaN;
+            r[3] = 0;
+            return;
+        }
+        double k = Math.rint(hi / HALF_PI_HI);
+        multiply(k, 0, HALF_PI_HI, HALF_PI_LO, r);
+        subtract(hi, lo, r[0], r[1], r);
+        add(r[0], r[1], -k * HALF_PI_LO2, 0, r);
+        double xh = Math.scalb(r[0], -TRIG_HALVINGS);
+        double xl = Math.scalb(r[1], -TRIG_HALVINGS);
+
+        multiply(xh, xl, xh, xl, r);
+        double squareHi = r[0];
+        double squareLo = r[1];
+        double sinHi = xh;
+        double sinLo = xl;
+        double cosHi = 1;
+        double cosLo = 0;
+        double sinTermHi = xh;
+        double sinTermLo = xl;
+        double cosTermHi = 1;
+        double cosTermLo = 0;
+        for (int n = 1; n < TRIG_TERMS; n++) {
+            multiply(sinTermHi, sinTermLo, squareHi, squareLo, r);
+            divide(r[0], r[1], -(2.0 * n) * (2 * n + 1), 0, r);
+            sinTermHi = r[0];
+            sinTermLo = r[1];
+            add(sinHi, sinLo, sinTermHi, sinTermLo, r);
+            sinHi = r[0];
+            sinLo = r[1];
+
+            multiply(cosTermHi, cosTermLo, squareHi, squareLo, r);
+            divide(r[0], r[1], -(2.0 * n - 1) * (2 * n), 0, r);
+            cosTermHi = r[0];
+            cosTermLo = r[1];
+            add(cosHi, cosLo, cosTermHi, cosTermLo, r);
+            cosHi = r[0];
+            cosLo = r[1];
+        }
+
+        for (int i = 0; i < TRIG_HALVINGS; i++) {
+            multiply(sinHi, sinLo, cosHi, cosLo, r);
+            double doubledHi = 2 * r[0];
+            double doubledLo = 2 * r[1];
+            subtract(cosHi, cosLo, sinHi, sinLo, r);
+            double differenceHi = r[0];
+            double differenceLo = r[1];
+            add(cosHi, cosLo, sinHi, sinLo, r);
+            multiply(differenceHi, differenceLo, r[0], r[1], r);
+            cosHi = r[0];
+            cosLo = r[1];
+            sinHi = doubledHi;
+            sinLo = doubledLo;
+        }
+
+        int quadrant = (int) (((long) k) & 3);
+        switch (quadrant) {
+            case 0 -> store(sinHi, sinLo, cosHi, cosLo, r);
+            case 1 -> store(cosHi, cosLo, -sinHi, -sinLo, r);
+            case 2 -> store(-sinHi, -sinLo, -cosHi, -cosLo, r);
+            default -> store(-cosHi, -cosLo, sinHi, sinLo, r);
+        }
+    }
+
+    public static void tan(double hi, double lo, double[] r) {
+        sinCos(hi, lo, r);
+        divide(r[0], r[1], r[2], r[3], r);
+    }
+
+    public static void atan(double hi, double lo, double[] r) {
+        double y = Math.atan(hi);
+        if (!Double.isFinite(hi)) {
+            set(y, r);
+            return;
+        }
+        sinCos(y, 0, r);
+        double sinHi = r[0];
+        double sinLo = r[1];
+        double cosHi = r[2];
+        double cosLo = r[3];
+        multiply(hi, lo, cosHi, cosLo, r);
+        subtract(r[0], r[1], sinHi, sinLo, r);
+        multiply(r[0], r[1], cosHi, cosLo, r);
+        add(y, 0, r[0], r[1], r);
+    }
+
+    public static void asin(double hi, double lo, double[] r) {
+        double y = Math.asin(hi);
+        if (Double.isNaN(y)) {
+            set(y, r);
+            return;
+        }
+        sinCos(y, 0, r);
+        double cosHi = r[2];
+        if (cosHi == 0) {
+            set(y, r);
+            return;
+        }
+        double cosLo = r[3];
+        subtract(hi, lo, r[0], r[1], r);
+        divide(r[0], r[1], cosHi, cosLo, r);
+        add(y, 0, r[0], r[1], r);
+    }
+
+    public static void acos(double hi, double lo, double[] r) {
+        asin(hi, lo, r);
+        subtract(HALF_PI_HI, HALF_PI_LO, r[0], r[1], r);
+    }
+
+    public static void sinh(double hi, double lo, double[] r) {
+        if (Math.abs(hi) < EXPM1_DIRECT_LIMIT) {
+            expm1Reduced(hi, lo, r);
+            double mHi = r[0];
+            double mLo = r[1];
+            add(mHi, mLo, 2, 0, r);
+            multiply(mHi, mLo, r[0], r[1], r);
+            double numeratorHi = r[0];
+            double numeratorLo = r[1];
+            add(mHi, mLo, 1, 0, r);
+            divide(numeratorHi, numeratorLo, 2 * r[0], 2 * r[1], r);
+            return;
+        }
+        exp(hi, lo, r);
+        double eHi = r[0];
+        double eLo = r[1];
+        divide(1, 0, eHi, eLo, r);
+        subtract(eHi, eLo, r[0], r[1], r);
+        r[0] *= 0.5;
+        r[1] *= 0.5;
+    }
+
+    public static void cosh(double hi, double lo, double[] r) {
+        exp(hi, lo, r);
+        double eHi = r[0];
+        double eLo = r[1];
+        divide(1, 0, eHi, eLo, r);
+        add(eHi, eLo, r[0], r[1], r);
+        r[0] *= 0.5;
+        r[1] *= 0.5;
+    }
+
+    public static void tanh(double hi, double lo, double[] r) {
+        if (Math.abs(hi) > 40) {
+            set(Math.signum(hi), r);
+            return;
+        }
+        expm1(2 * hi, 2 * lo, r);
+        double mHi = r[0];
+        double mLo = r[1];
+        add(mHi, mLo, 2, 0, r);
+        divide(mHi, mLo, r[0], r[1], r);
+    }
+
+    public static void abs(double hi, double lo, double[] r) {
+        if (hi < 0) {
+            r[0] = -hi;
+            r[1] = -lo;
+        } else {
+            r[0] = hi;
+            r[1] = lo;
+        }
+    }
+
+    public static void floor(double hi, double lo, double[] r) {
+        double floorHi = Math.floor(hi);
+        if (floorHi == hi) {
+            normalize(floorHi, Math.floor(lo), r);
+        } else {
+            set(floorHi, r);
+        }
+    }
+
+    public static void ceil(double hi, double lo, double[] r) {
+        double ceilHi = Math.ceil(hi);
+        if (ceilHi == hi) {
+            normalize(ceilHi, Math.ceil(lo), r);
+        } else {
+            set(ceilHi, r);
+        }
+    }
+
+    private static void normalize(double hi, double lo, double[] r) {
+        double s = hi + lo;
+        r[0] = s;
+        r[1] = Double.isFinite(s) ? lo - (s - hi) : 0;
+    }
+
+    private static void set(double value, double[] r) {
+        r[0] = value;
+        r[1] = 0;
+    }
+
+    private static void store(double sinHi, double sinLo, double cosHi, double cosLo, double[] r) {
+        r[0] = sinHi;
+        r[1] = sinLo;
+        r[2] = cosHi;
+        r[3] = cosLo;
+    }
+}
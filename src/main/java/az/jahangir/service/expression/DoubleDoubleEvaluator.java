@@ -0,0 +1,198 @@
+package az.jahangir.service.expression;
+
+import az.jahangir.model.DoubleDoubleFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public final class DoubleDoubleEvaluator implements DoubleDoubleFunction {
+
+    private static final int CONSTANT = 0;
+    private static final int VARIABLE = 1;
+    private static final int NEGATE = 2;
+    private static final int BINARY = 3;
+    private static final int INTEGER_POWER = 4;
+    private static final int CALL = 5;
+
+    private static final Set<String> SUPPORTED = Set.of(
+            "sin", "cos", "tan", "cot", "asin", "acos", "atan",
+            "sinh", "cosh", "tanh",
+            "log", "log2", "log10", "log1p", "exp", "expm1", "sqrt", "cbrt",
+            "abs", "floor", "ceil", "signum", "pow");
+
+    private final int[] kinds;
+    private final char[] operators;
+    private final String[] names;
+    private final double[] constantHi;
+    private final double[] constantLo;
+    private final int[] left;
+    private final int[] right;
+    private final ThreadLocal<double[][]> scratch;
+
+    private DoubleDoubleEvaluator(List<Instruction> program) {
+        int size = program.size();
+        this.kinds = new int[size];
+        this.operators = new char[size];
+        this.names = new String[size];
+        this.constantHi = new double[size];
+        this.constantLo = new double[size];
+        this.left = new int[size];
+        this.right = new int[size];
+        for (int i = 0; i < size; i++) {
+            Instruction instruction = program.get(i);
+            kinds[i] = instruction.kind;
+            operators[i] = instruction.operator;
+            names[i] = instruction.name;
+            constantHi[i] = instruction.constantHi;
+            constantLo[i] = instruction.constantLo;
+            left[i] = instruction.left;
+            right[i] = instruction.right;
+        }
+        this.scratch = ThreadLocal.withInitial(() -> new double[][]{new double[size], new double[size], new double[4]});
+    }
+
+    public static DoubleDoubleEvaluator compile(ExpressionNode node, String variable) {
+        List<Instruction> program = new ArrayList<>();
+        emit(node, variable, program);
+        return new DoubleDoubleEvaluator(program);
+    }
+
+    @Override
+    public void apply(double hi, double lo, double[] out) {
+        double[][] registers = scratch.get();
+        double[] h = registers[0];
+        double[] l = registers[1];
+        double[] r = registers[2];
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case CONSTANT -> {
+                    r[0] = constantHi[i];
+                    r[1] = constantLo[i];
+                }
+                case VARIABLE -> {
+                    r[0] = hi;
+                    r[1] = lo;
+                }
+                case NEGATE -> {
+                    r[0] = -h[left[i]];
+                    r[1] = -l[left[i]];
+                }
+                case BINARY -> binary(operators[i], h[left[i]], l[left[i]], h[right[i]], l[right[i]], r);
+                case INTEGER_POWER -> DoubleDouble.power(h[left[i]], l[left[i]], (int) constantHi[i], r);
+                default -> {
+                    if (right[i] >= 0) {
+                        DoubleDouble.power(h[left[i]], l[left[i]], h[right[i]], l[right[i]], r);
+                    } else {
+                        unaryCall(names[i], h[left[i]], l[left[i]], r);
+                    }
+                }
+            }
+            h[i] = r[0];
+            l[i] = r[1];
+        }
+        out[0] = h[kinds.length - 1];
+        out[1] = l[kinds.length - 1];
+    }
+
+    private static void binary(char operator, double ahi, double alo, double bhi, double blo, double[] r) {
+        switch (operator) {
+            case '+' -> DoubleDouble.add(ahi, alo, bhi, blo, r);
+            case '-' -> DoubleDouble.subtract(ahi, alo, bhi, blo, r);
+            case '*' -> DoubleDouble.multiply(ahi, alo, bhi, blo, r);
+            case '/' -> DoubleDouble.divide(ahi, alo, bhi, blo, r);
+            case '^' -> DoubleDouble.power(ahi, alo, bhi, blo, r);
+            default -> DoubleDouble.remainder(ahi, alo, bhi, blo, r);
+        }
+    }
+
+    private static void unaryCall(String name, double hi, double lo, double[] r) {
+        switch (name) {
+            case "sin" -> DoubleDouble.sinCos(hi, lo, r);
+            case "cos" -> {
+                DoubleDouble.sinCos(hi, lo, r);
+                r[0] = r[2];
+                r[1] = r[3];
+            }
+            case "tan" -> DoubleDouble.tan(hi, lo, r);
+            case "cot" -> {
+                DoubleDouble.sinCos(hi, lo, r);
+                DoubleDouble.divide(r[2], r[3], r[0], r[1], r);
+            }
+            case "asin" -> DoubleDouble.asin(hi, lo, r);
+            case "acos" -> DoubleDouble.acos(hi, lo, r);
+            case "atan" -> DoubleDouble.atan(hi, lo, r);
+            case "sinh" -> DoubleDouble.sinh(hi, lo, r);
+            case "cosh" -> DoubleDouble.cosh(hi, lo, r);
+            case "tanh" -> DoubleDouble.tanh(hi, lo, r);
+            case "log" -> DoubleDouble.log(hi, lo, r);
+            case "log2" -> DoubleDouble.log2(hi, lo, r);
+            case "log10" -> DoubleDouble.log10(hi, lo, r);
+            case "log1p" -> DoubleDouble.log1p(hi, lo, r);
+            case "exp" -> DoubleDouble.exp(hi, lo, r);
+            case "expm1" -> DoubleDouble.expm1(hi, lo, r);
+            case "sqrt" -> DoubleDouble.sqrt(hi, lo, r);
+            case "cbrt" -> DoubleDouble.cbrt(hi, lo, r);
+            case "abs" -> DoubleDouble.abs(hi, lo, r);
+            case "floor" -> DoubleDouble.floor(hi, lo, r);
+            case "ceil" -> DoubleDouble.ceil(hi, lo, r);
+            default -> {
+                r[0] = Math.signum(hi);
+                r[1] = 0;
+            }
+        }
+    }
+
+    private static int emit(ExpressionNode node, String variable, List<Instruction> program) {
+        Instruction instruction = new Instruction();
+        if (node instanceof ExpressionNode.Constant c) {
+            instruction.kind = CONSTANT;
+            instruction.constantHi = c.value();
+            if (c.value() == Math.PI) {
+                instruction.constantLo = DoubleDouble.PI_LO;
+            } else if (c.value() == Math.E) {
+                instruction.constantLo = DoubleDouble.E_LO;
+            }
+        } else if (node instanceof ExpressionNode.Variable v) {
+            if (!v.name().equals(variable)) {
+                throw new UnsupportedOperationException("Unknown variable: " + v.name());
+            }
+            instruction.kind = VARIABLE;
+        } else if (node instanceof ExpressionNode.Negate n) {
+            instruction.kind = NEGATE;
+            instruction.left = emit(n.operand(), variable, program);
+        } else if (node instanceof ExpressionNode.Binary b) {
+            instruction.left = emit(b.left(), variable, program);
+            if (b.operator() == '^' && b.right() instanceof ExpressionNode.Constant c
+                    && c.value() == Math.rint(c.value()) && Math.abs(c.value()) <= Integer.MAX_VALUE) {
+                instruction.kind = INTEGER_POWER;
+                instruction.constantHi = c.value();
+            } else {
+                instruction.kind = BINARY;
+                instruction.operator = b.operator();
+                instruction.right = emit(b.right(), variable, program);
+            }
+        } else {
+            ExpressionNode.Call call = (ExpressionNode.Call) node;
+            if (!SUPPORTED.contains(call.name())) {
+                throw new UnsupportedOperationException("No double-double form for: " + call.name());
+            }
+            instruction.kind = CALL;
+            instruction.name = call.name();
+            instruction.left = emit(call.arguments().get(0), variable, program);
+            instruction.right = call.arguments().size() > 1 ? emit(call.arguments().get(1), variable, program) : -1;
+        }
+        program.add(instruction);
+        return program.size() - 1;
+    }
+
+    private static class Instruction {
+        int kind;
+        char operator;
+        String name;
+        double constantHi;
+        double constantLo;
+        int left = -1;
+        int right = -1;
+    }
+}
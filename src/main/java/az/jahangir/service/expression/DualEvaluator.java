@@ -0,0 +1,268 @@
+package az.jahangir.service.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+public final class DualEvaluator {
+
+    private static final int CONSTANT = 0;
+    private static final int VARIABLE = 1;
+    private static final int NEGATE = 2;
+    private static final int BINARY = 3;
+    private static final int CALL = 4;
+
+    private final int[] kinds;
+    private final char[] operators;
+    private final String[] names;
+    private final double[] constants;
+    private final int[] left;
+    private final int[] right;
+    private final ThreadLocal<double[][]> scratch;
+
+    private DualEvaluator(List<Instruction> program) {
+        int size = program.size();
+        this.kinds = new int[size];
+        this.operators = new char[size];
+        this.names = new String[size];
+        this.constants = new double[size];
+        this.left = new int[size];
+        this.right = new int[size];
+        for (int i = 0; i < size; i++) {
+            Instruction instruction = program.get(i);
+            kinds[i] = instruction.kind;
+            operators[i] = instruction.operator;
+            names[i] = instruction.name;
+            constants[i] = instruction.constant;
+            left[i] = instruction.left;
+            right[i] = instruction.right;
+        }
+        this.scratch = ThreadLocal.withInitial(() -> new double[][]{new double[size], new double[size]});
+    }
+
+    public static DualEvaluator compile(ExpressionNode node, String variable) {
+        List<Instruction> program = new ArrayList<>();
+        emit(node, variable, program);
+        return new DualEvaluator(program);
+    }
+
+    public DoubleUnaryOperator value() {
+        return x -> {
+            double[][] registers = scratch.get();
+            run(x, registers[0], registers[1]);
+            return registers[0][kinds.length - 1];
+        };
+    }
+
+    public DoubleUnaryOperator derivative() {
+        return x -> {
+            double[][] registers = scratch.get();
+            run(x, registers[0], registers[1]);
+            return registers[1][kinds.length - 1];
+        };
+    }
+
+    public void evaluate(double x, double[] valueAndDerivative) {
+        double[][] registers = scratch.get();
+        run(x, registers[0], registers[1]);
+        valueAndDerivative[0] = registers[0][kinds.length - 1];
+        valueAndDerivative[1] = registers[1][kinds.length - 1];
+    }
+
+    private void run(double x, double[] v, double[] d) {
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case CONSTANT -> {
+                    v[i] = constants[i];
+                    d[i] = 0;
+                }
+                case VARIABLE -> {
+                    v[i] = x;
+                    d[i] = 1;
+                }
+                case NEGATE -> {
+                    v[i] = -v[left[i]];
+                    d[i] = -d[left[i]];
+                }
+                case BINARY -> binary(i, v, d);
+                default -> {
+                    if (right[i] >= 0) {
+                        power(i, v[left[i]], d[left[i]], v[right[i]], d[right[i]], v, d);
+                    } else {
+                        unaryCall(i, v, d);
+                    }
+                }
+            }
+        }
+    }
+
+    private void binary(int i, double[] v, double[] d) {
+        double a = v[left[i]];
+        double da = d[left[i]];
+        double b = v[right[i]];
+        double db = d[right[i]];
+        switch (operators[i]) {
+            case '+' -> {
+                v[i] = a + b;
+                d[i] = da + db;
+            }
+            case '-' -> {
+                v[i] = a - b;
+                d[i] = da - db;
+            }
+            case '*' -> {
+                v[i] = a * b;
+                d[i] = da * b + a * db;
+            }
+            case '/' -> {
+                v[i] = a / b;
+                d[i] = (da * b - a * db) / (b * b);
+            }
+            case '^' -> power(i, a, da, b, db, v, d);
+            default -> {
+                double quotient = a / b;
+                v[i] = a % b;
+                d[i] = da - db * (quotient < 0 ? Math.ceil(quotient) : Math.floor(quotient));
+            }
+        }
+    }
+
+    private static void power(int i, double a, double da, double b, double db, double[] v, double[] d) {
+        double value = Math.pow(a, b);
+        v[i] = value;
+        if (db == 0) {
+            d[i] = da == 0 ? 0 : b * Math.pow(a, b - 1) * da;
+        } else {
+            d[i] = value * (db * Math.log(a) + (da == 0 ? 0 : b * da / a));
+        }
+    }
+
+    private void unaryCall(int i, double[] v, double[] d) {
+        double u = v[left[i]];
+        double du = d[left[i]];
+        double value;
+        double slope;
+        switch (names[i]) {
+            case "sin" -> {
+                value = Math.sin(u);
+                slope = Math.cos(u);
+            }
+            case "cos" -> {
+                value = Math.cos(u);
+                slope = -Math.sin(u);
+            }
+            case "tan" -> {
+                value = Math.tan(u);
+                slope = 1 + value * value;
+            }
+            case "cot" -> {
+                value = 1 / Math.tan(u);
+                slope = -(1 + value * value);
+            }
+            case "asin" -> {
+                value = Math.asin(u);
+                slope = 1 / Math.sqrt(1 - u * u);
+            }
+            case "acos" -> {
+                value = Math.acos(u);
+                slope = -1 / Math.sqrt(1 - u * u);
+            }
+            case "atan" -> {
+                value = Math.atan(u);
+                slope = 1 / (1 + u * u);
+            }
+            case "sinh" -> {
+                value = Math.sinh(u);
+                slope = Math.cosh(u);
+            }
+            case "cosh" -> {
+                value = Math.cosh(u);
+                slope = Math.sinh(u);
+            }
+            case "tanh" -> {
+                value = Math.tanh(u);
+                slope = 1 - value * value;
+            }
+            case "log" -> {
+                value = Math.log(u);
+                slope = 1 / u;
+            }
+            case "log2" -> {
+                value = Math.log(u) / Math.log(2);
+                slope = 1 / (u * Math.log(2));
+            }
+            case "log10" -> {
+                value = Math.log10(u);
+                slope = 1 / (u * Math.log(10));
+            }
+            case "log1p" -> {
+                value = Math.log1p(u);
+                slope = 1 / (1 + u);
+            }
+            case "exp" -> {
+                value = Math.exp(u);
+                slope = value;
+            }
+            case "expm1" -> {
+                value = Math.expm1(u);
+                slope = Math.exp(u);
+            }
+            case "sqrt" -> {
+                value = Math.sqrt(u);
+                slope = 1 / (2 * value);
+            }
+            case "cbrt" -> {
+                value = Math.cbrt(u);
+                slope = 1 / (3 * value * value);
+            }
+            case "abs" -> {
+                value = Math.abs(u);
+                slope = Math.signum(u);
+            }
+            default -> {
+                value = BuiltinFunctions.unary(names[i]).applyAsDouble(u);
+                slope = 0;
+            }
+        }
+        v[i] = value;
+        d[i] = du == 0 ? 0 : slope * du;
+    }
+
+    private static int emit(ExpressionNode node, String variable, List<Instruction> program) {
+        Instruction instruction = new Instruction();
+        if (node instanceof ExpressionNode.Constant c) {
+            instruction.kind = CONSTANT;
+            instruction.constant = c.value();
+        } else if (node instanceof ExpressionNode.Variable v) {
+            if (!v.name().equals(variable)) {
+                throw new UnsupportedOperationException("Unknown variable: " + v.name());
+            }
+            instruction.kind = VARIABLE;
+        } else if (node instanceof ExpressionNode.Negate n) {
+            instruction.kind = NEGATE;
+            instruction.left = emit(n.operand(), variable, program);
+        } else if (node instanceof ExpressionNode.Binary b) {
+            instruction.kind = BINARY;
+            instruction.operator = b.operator();
+            instruction.left = emit(b.left(), variable, program);
+            instruction.right = emit(b.right(), variable, program);
+        } else {
+            ExpressionNode.Call call = (ExpressionNode.Call) node;
+            instruction.kind = CALL;
+            instruction.name = call.name();
+            instruction.left = emit(call.arguments().get(0), variable, program);
+            instruction.right = call.arguments().size() > 1 ? emit(call.arguments().get(1), variable, program) : -1;
+        }
+        program.add(instruction);
+        return program.size() - 1;
+    }
+
+    private static class Instruction {
+        int kind;
+        char operator;
+        String name;
+        double constant;
+        int left = -1;
+        int right = -1;
+    }
+}
@@ -0,0 +1,266 @@
+package az.jahangir.service.expression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+public final class ExpressionBatch {
+
+    public static final int BLOCK_SIZE = 256;
+
+    private static final int CONSTANT = 0;
+    private static final int VARIABLE = 1;
+    private static final int NEGATE = 2;
+    private static final int BINARY = 3;
+    private static final int UNARY_CALL = 4;
+    private static final int BINARY_CALL = 5;
+
+    private final int[] kinds;
+    private final char[] operators;
+    private final double[] constants;
+    private final DoubleUnaryOperator[] unaryFunctions;
+    private final DoubleBinaryOperator[] binaryFunctions;
+    private final int[] left;
+    private final int[] right;
+    private final int[] outputs;
+    private final int[][] slices;
+    private final ThreadLocal<double[][]> registers;
+    private final ThreadLocal<double[]> scalarRegisters;
+
+    private ExpressionBatch(Builder builder, int[] outputs) {
+        int size = builder.kinds.size();
+        this.kinds = new int[size];
+        this.operators = new char[size];
+        this.constants = new double[size];
+        this.unaryFunctions = new DoubleUnaryOperator[size];
+        this.binaryFunctions = new DoubleBinaryOperator[size];
+        this.left = new int[size];
+        this.right = new int[size];
+        for (int i = 0; i < size; i++) {
+            kinds[i] = builder.kinds.get(i);
+            operators[i] = builder.operators.get(i);
+            constants[i] = builder.constants.get(i);
+            left[i] = builder.left.get(i);
+            right[i] = builder.right.get(i);
+            String name = builder.names.get(i);
+            if (kinds[i] == UNARY_CALL) unaryFunctions[i] = BuiltinFunctions.unary(name);
+            if (kinds[i] == BINARY_CALL) binaryFunctions[i] = BuiltinFunctions.binary(name);
+        }
+        this.outputs = outputs;
+        this.slices = new int[outputs.length][];
+        for (int j = 0; j < outputs.length; j++) {
+            slices[j] = slice(outputs[j]);
+        }
+        this.registers = ThreadLocal.withInitial(this::createRegisters);
+        this.scalarRegisters = ThreadLocal.withInitial(() -> constants.clone());
+    }
+
+    public static ExpressionBatch compile(List<ExpressionNode> roots, String variable) {
+        Builder builder = new Builder(variable);
+        int[] outputs = new int[roots.size()];
+        for (int i = 0; i < roots.size(); i++) {
+            outputs[i] = builder.emit(roots.get(i));
+        }
+        return new ExpressionBatch(builder, outputs);
+    }
+
+    public int outputCount() {
+        return outputs.length;
+    }
+
+    public int instructionCount() {
+        return kinds.length;
+    }
+
+    public int instructionCount(int output) {
+        return slices[output].length;
+    }
+
+    public Member member(int output, DoubleUnaryOperator scalar) {
+        return new Member(this, output, scalar);
+    }
+
+    public DoubleUnaryOperator scalar(int output) {
+        return x -> evaluate(output, x);
+    }
+
+    public double evaluate(int output, double x) {
+        double[] r = scalarRegisters.get();
+        for (int op : slices[output]) {
+            r[op] = switch (kinds[op]) {
+                case VARIABLE -> x;
+                case NEGATE -> -r[left[op]];
+                case BINARY -> BuiltinFunctions.applyOperator(operators[op], r[left[op]], r[right[op]]);
+                case UNARY_CALL -> unaryFunctions[op].applyAsDouble(r[left[op]]);
+                default -> binaryFunctions[op].applyAsDouble(r[left[op]], r[right[op]]);
+            };
+        }
+        return r[outputs[output]];
+    }
+
+    public void evaluate(double[] xs, int count, double[][] out) {
+        evaluate(xs, 0, count, out);
+    }
+
+    public void evaluate(double[] xs, int from, int count, double[][] out) {
+        double[][] columns = registers.get();
+        for (int offset = 0; offset < count; offset += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, count - offset);
+            evaluateBlock(xs, from + offset, length, columns);
+            for (int j = 0; j < outputs.length; j++) {
+                System.arraycopy(columns[outputs[j]], 0, out[j], offset, length);
+            }
+        }
+    }
+
+    private void evaluateBlock(double[] xs, int offset, int length, double[][] columns) {
+        for (int op = 0; op < kinds.length; op++) {
+            double[] target = columns[op];
+            switch (kinds[op]) {
+                case CONSTANT -> {
+                }
+                case VARIABLE -> System.arraycopy(xs, offset, target, 0, length);
+                case NEGATE -> {
+                    double[] a = columns[left[op]];
+                    for (int i = 0; i < length; i++) target[i] = -a[i];
+                }
+                case BINARY -> evaluateBinary(operators[op], columns[left[op]], columns[right[op]], target, length);
+                case UNARY_CALL -> {
+                    DoubleUnaryOperator function = unaryFunctions[op];
+                    double[] a = columns[left[op]];
+                    for (int i = 0; i < length; i++) target[i] = function.applyAsDouble(a[i]);
+                }
+                default -> {
+                    DoubleBinaryOperator function = binaryFunctions[op];
+                    double[] a = columns[left[op]];
+                    double[] b = columns[right[op]];
+                    for (int i = 0; i < length; i++) target[i] = function.applyAsDouble(a[i], b[i]);
+                }
+            }
+        }
+    }
+
+    private static void evaluateBinary(char operator, double[] a, double[] b, double[] target, int length) {
+        switch (operator) {
+            case '+' -> {
+                for (int i = 0; i < length; i++) target[i] = a[i] + b[i];
+            }
+            case '-' -> {
+                for (int i = 0; i < length; i++) target[i] = a[i] - b[i];
+            }
+            case '*' -> {
+                for (int i = 0; i < length; i++) target[i] = a[i] * b[i];
+            }
+            case '/' -> {
+                for (int i = 0; i < length; i++) target[i] = a[i] / b[i];
+            }
+            case '^' -> {
+                for (int i = 0; i < length; i++) target[i] = Math.pow(a[i], b[i]);
+            }
+            default -> {
+                for (int i = 0; i < length; i++) target[i] = a[i] % b[i];
+            }
+        }
+    }
+
+    private int[] slice(int root) {
+        BitSet reachable = new BitSet(kinds.length);
+        reachable.set(root);
+        for (int op = root; op >= 0; op--) {
+            if (!reachable.get(op)) continue;
+            if (left[op] >= 0) reachable.set(left[op]);
+            if (right[op] >= 0) reachable.set(right[op]);
+        }
+        return reachable.stream().filter(op -> kinds[op] != CONSTANT).toArray();
+    }
+
+    private double[][] createRegisters() {
+        double[][] columns = new double[kinds.length][BLOCK_SIZE];
+        for (int op = 0; op < kinds.length; op++) {
+            if (kinds[op] == CONSTANT) {
+                Arrays.fill(columns[op], constants[op]);
+            }
+        }
+        return columns;
+    }
+
+    public record Member(ExpressionBatch batch, int output, DoubleUnaryOperator scalar) implements DoubleUnaryOperator {
+
+        @Override
+        public double applyAsDouble(double x) {
+            return scalar.applyAsDouble(x);
+        }
+    }
+
+    private static class Builder {
+
+        private final String variable;
+        private final Map<ExpressionNode, Integer> emitted = new IdentityHashMap<>();
+        private final Map<Instruction, Integer> interned = new HashMap<>();
+        private final List<Integer> kinds = new ArrayList<>();
+        private final List<Character> operators = new ArrayList<>();
+        private final List<Double> constants = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<Integer> left = new ArrayList<>();
+        private final List<Integer> right = new ArrayList<>();
+
+        Builder(String variable) {
+            this.variable = variable;
+        }
+
+        int emit(ExpressionNode node) {
+            Integer existing = emitted.get(node);
+            if (existing != null) return existing;
+
+            int index;
+            if (node instanceof ExpressionNode.Constant c) {
+                index = add(CONSTANT, ' ', c.value(), null, -1, -1);
+            } else if (node instanceof ExpressionNode.Variable v) {
+                if (!v.name().equals(variable)) {
+                    throw new UnsupportedOperationException("Unknown variable: " + v.name());
+                }
+                index = add(VARIABLE, ' ', 0, null, -1, -1);
+            } else if (node instanceof ExpressionNode.Negate n) {
+                index = add(NEGATE, ' ', 0, null, emit(n.operand()), -1);
+            } else if (node instanceof ExpressionNode.Binary b) {
+                int l = emit(b.left());
+                int r = emit(b.right());
+                index = add(BINARY, b.operator(), 0, null, l, r);
+            } else {
+                ExpressionNode.Call call = (ExpressionNode.Call) node;
+                int l = emit(call.arguments().get(0));
+                if (call.arguments().size() == 1) {
+                    index = add(UNARY_CALL, ' ', 0, call.name(), l, -1);
+                } else {
+                    index = add(BINARY_CALL, ' ', 0, call.name(), l, emit(call.arguments().get(1)));
+                }
+            }
+            emitted.put(node, index);
+            return index;
+        }
+
+        private int add(int kind, char operator, double constant, String name, int l, int r) {
+            Instruction instruction = new Instruction(kind, operator, constant, name, l, r);
+            Integer existing = interned.get(instruction);
+            if (existing != null) return existing;
+
+            interned.put(instruction, kinds.size());
+            kinds.add(kind);
+            operators.add(operator);
+            constants.add(constant);
+            names.add(name);
+            left.add(l);
+            right.add(r);
+            return kinds.size() - 1;
+        }
+
+        private record Instruction(int kind, char operator, double constant, String name, int left, int right) {
+        }
+    }
+}
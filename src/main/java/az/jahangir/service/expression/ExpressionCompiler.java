@@ -0,0 +1,167 @@
+package az.jahangir.service.expression;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+public final class ExpressionCompiler {
+
+    private ExpressionCompiler() {
+    }
+
+    public static DoubleUnaryOperator compile(ExpressionNode node, String variable) {
+        if (isConstant(node)) {
+            double value = foldConstant(node);
+            return x -> value;
+        }
+
+        if (node instanceof ExpressionNode.Variable v) {
+            if (!v.name().equals(variable)) {
+                throw new UnsupportedOperationException("Unknown variable: " + v.name());
+            }
+            return x -> x;
+        }
+
+        if (node instanceof ExpressionNode.Negate n) {
+            DoubleUnaryOperator operand = compile(n.operand(), variable);
+            return x -> -operand.applyAsDouble(x);
+        }
+
+        if (node instanceof ExpressionNode.Binary b) {
+            return compileBinary(b, variable);
+        }
+
+        ExpressionNode.Call call = (ExpressionNode.Call) node;
+        if (call.arguments().size() == 1) {
+            DoubleUnaryOperator function = BuiltinFunctions.unary(call.name());
+            if (call.arguments().get(0) instanceof ExpressionNode.Variable) {
+                compile(call.arguments().get(0), variable);
+                return function;
+            }
+            DoubleUnaryOperator argument = compile(call.arguments().get(0), variable);
+            return x -> function.applyAsDouble(argument.applyAsDouble(x));
+        }
+
+        DoubleBinaryOperator function = BuiltinFunctions.binary(call.name());
+        DoubleUnaryOperator first = compile(call.arguments().get(0), variable);
+        DoubleUnaryOperator second = compile(call.arguments().get(1), variable);
+        return x -> function.applyAsDouble(first.applyAsDouble(x), second.applyAsDouble(x));
+    }
+
+    public static DoubleBinaryOperator compileBivariate(ExpressionNode node, String first, String second) {
+        if (isConstant(node)) {
+            double value = foldConstant(node);
+            return (x, y) -> value;
+        }
+
+        if (node instanceof ExpressionNode.Variable v) {
+            if (v.name().equals(first)) return (x, y) -> x;
+            if (v.name().equals(second)) return (x, y) -> y;
+            throw new UnsupportedOperationException("Unknown variable: " + v.name());
+        }
+
+        if (node instanceof ExpressionNode.Negate n) {
+            DoubleBinaryOperator operand = compileBivariate(n.operand(), first, second);
+            return (x, y) -> -operand.applyAsDouble(x, y);
+        }
+
+        if (node instanceof ExpressionNode.Binary b) {
+            DoubleBinaryOperator left = compileBivariate(b.left(), first, second);
+            if (b.operator() == '^' && isConstant(b.right())) {
+                double exponent = foldConstant(b.right());
+                if (exponent == 2d) {
+                    return (x, y) -> {
+                        double v = left.applyAsDouble(x, y);
+                        return v * v;
+                    };
+                }
+                return (x, y) -> Math.pow(left.applyAsDouble(x, y), exponent);
+            }
+            DoubleBinaryOperator right = compileBivariate(b.right(), first, second);
+            return switch (b.operator()) {
+                case '+' -> (x, y) -> left.applyAsDouble(x, y) + right.applyAsDouble(x, y);
+                case '-' -> (x, y) -> left.applyAsDouble(x, y) - right.applyAsDouble(x, y);
+                case '*' -> (x, y) -> left.applyAsDouble(x, y) * right.applyAsDouble(x, y);
+                case '/' -> (x, y) -> left.applyAsDouble(x, y) / right.applyAsDouble(x, y);
+                case '^' -> (x, y) -> Math.pow(left.applyAsDouble(x, y), right.applyAsDouble(x, y));
+                case '%' -> (x, y) -> left.applyAsDouble(x, y) % right.applyAsDouble(x, y);
+                default -> throw new UnsupportedOperationException("Unsupported operator: " + b.operator());
+            };
+        }
+
+        ExpressionNode.Call call = (ExpressionNode.Call) node;
+        if (call.arguments().size() == 1) {
+            DoubleUnaryOperator function = BuiltinFunctions.unary(call.name());
+            DoubleBinaryOperator argument = compileBivariate(call.arguments().get(0), first, second);
+            return (x, y) -> function.applyAsDouble(argument.applyAsDouble(x, y));
+        }
+
+        DoubleBinaryOperator function = BuiltinFunctions.binary(call.name());
+        DoubleBinaryOperator a = compileBivariate(call.arguments().get(0), first, second);
+        DoubleBinaryOperator b = compileBivariate(call.arguments().get(1), first, second);
+        return (x, y) -> function.applyAsDouble(a.applyAsDouble(x, y), b.applyAsDouble(x, y));
+    }
+
+    private static DoubleUnaryOperator compileBinary(ExpressionNode.Binary b, String variable) {
+        if (isConstant(b.right())) {
+            double c = foldConstant(b.right());
+            DoubleUnaryOperator left = compile(b.left(), variable);
+            return switch (b.operator()) {
+                case '+' -> x -> left.applyAsDouble(x) + c;
+                case '-' -> x -> left.applyAsDouble(x) - c;
+                case '*' -> x -> left.applyAsDouble(x) * c;
+                case '/' -> x -> left.applyAsDouble(x) / c;
+                case '^' -> compilePowerWithConstantExponent(left, c);
+                case '%' -> x -> left.applyAsDouble(x) % c;
+                default -> throw new UnsupportedOperationException("Unsupported operator: " + b.operator());
+            };
+        }
+
+        DoubleUnaryOperator left = compile(b.left(), variable);
+        DoubleUnaryOperator right = compile(b.right(), variable);
+        return switch (b.operator()) {
+            case '+' -> x -> left.applyAsDouble(x) + right.applyAsDouble(x);
+            case '-' -> x -> left.applyAsDouble(x) - right.applyAsDouble(x);
+            case '*' -> x -> left.applyAsDouble(x) * right.applyAsDouble(x);
+            case '/' -> x -> left.applyAsDouble(x) / right.applyAsDouble(x);
+            case '^' -> x -> Math.pow(left.applyAsDouble(x), right.applyAsDouble(x));
+            case '%' -> x -> left.applyAsDouble(x) % right.applyAsDouble(x);
+            default -> throw new UnsupportedOperationException("Unsupported operator: " + b.operator());
+        };
+    }
+
+    private static DoubleUnaryOperator compilePowerWithConstantExponent(DoubleUnaryOperator base, double exponent) {
+        if (exponent == 2d) {
+            return x -> {
+                double v = base.applyAsDouble(x);
+                return v * v;
+            };
+        }
+        if (exponent == 0.5d) {
+            return x -> Math.sqrt(base.applyAsDouble(x));
+        }
+        return x -> Math.pow(base.applyAsDouble(x), exponent);
+    }
+
+    public static boolean isConstant(ExpressionNode node) {
+        if (node instanceof ExpressionNode.Constant) return true;
+        if (node instanceof ExpressionNode.Variable) return false;
+        if (node instanceof ExpressionNode.Negate n) return isConstant(n.operand());
+        if (node instanceof ExpressionNode.Binary b) return isConstant(b.left()) && isConstant(b.right());
+        return ((ExpressionNode.Call) node).arguments().stream().allMatch(ExpressionCompiler::isConstant);
+    }
+
+    public static double foldConstant(ExpressionNode node) {
+        if (node instanceof ExpressionNode.Constant c) return c.value();
+        if (node instanceof ExpressionNode.Negate n) return -foldConstant(n.operand());
+        if (node instanceof ExpressionNode.Binary b) {
+            return BuiltinFunctions.applyOperator(b.operator(), foldConstant(b.left()), foldConstant(b.right()));
+        }
+        if (node instanceof ExpressionNode.Call call) {
+            if (call.arguments().size() == 1) {
+                return BuiltinFunctions.unary(call.name()).applyAsDouble(foldConstant(call.arguments().get(0)));
+            }
+            return BuiltinFunctions.binary(call.name()).applyAsDouble(foldConstant(call.arguments().get(0)), foldConstant(call.arguments().get(1)));
+        }
+        throw new UnsupportedOperationException("Expression is not constant: " + node);
+    }
+}
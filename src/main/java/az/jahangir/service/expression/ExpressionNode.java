@@ -0,0 +1,25 @@
+package az.jahangir.service.expression;
+
+import java.util.List;
+
+public sealed interface ExpressionNode {
+
+    record Constant(double value) implements ExpressionNode {
+    }
+
+    record Variable(String name) implements ExpressionNode {
+    }
+
+    record Negate(ExpressionNode operand) implements ExpressionNode {
+    }
+
+    record Binary(char operator, ExpressionNode left, ExpressionNode right) implements ExpressionNode {
+    }
+
+    record Call(String name, List<ExpressionNode> arguments) implements ExpressionNode {
+
+        public Call {
+            arguments = List.copyOf(arguments);
+        }
+    }
+}
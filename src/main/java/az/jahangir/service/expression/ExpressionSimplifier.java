@@ -0,0 +1,120 @@
+package az.jahangir.service.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ExpressionSimplifier {
+
+    private ExpressionSimplifier() {
+    }
+
+    public static ExpressionNode simplify(ExpressionNode node) {
+        if (node instanceof ExpressionNode.Negate n) {
+            return negate(simplify(n.operand()));
+        }
+        if (node instanceof ExpressionNode.Binary b) {
+            return binary(b.operator(), simplify(b.left()), simplify(b.right()));
+        }
+        if (node instanceof ExpressionNode.Call call) {
+            List<ExpressionNode> arguments = new ArrayList<>(call.arguments().size());
+            for (ExpressionNode argument : call.arguments()) {
+                arguments.add(simplify(argument));
+            }
+            return call(call.name(), arguments);
+        }
+        return node;
+    }
+
+    public static ExpressionNode constant(double value) {
+        return new ExpressionNode.Constant(value);
+    }
+
+    public static ExpressionNode negate(ExpressionNode operand) {
+        if (operand instanceof ExpressionNode.Constant c) return constant(-c.value());
+        if (operand instanceof ExpressionNode.Negate n) return n.operand();
+        return new ExpressionNode.Negate(operand);
+    }
+
+    public static ExpressionNode add(ExpressionNode left, ExpressionNode right) {
+        return binary('+', left, right);
+    }
+
+    public static ExpressionNode subtract(ExpressionNode left, ExpressionNode right) {
+        return binary('-', left, right);
+    }
+
+    public static ExpressionNode multiply(ExpressionNode left, ExpressionNode right) {
+        return binary('*', left, right);
+    }
+
+    public static ExpressionNode divide(ExpressionNode left, ExpressionNode right) {
+        return binary('/', left, right);
+    }
+
+    public static ExpressionNode power(ExpressionNode base, ExpressionNode exponent) {
+        return binary('^', base, exponent);
+    }
+
+    public static ExpressionNode call(String name, ExpressionNode... arguments) {
+        return call(name, List.of(arguments));
+    }
+
+    public static ExpressionNode call(String name, List<ExpressionNode> arguments) {
+        ExpressionNode node = new ExpressionNode.Call(name, arguments);
+        return ExpressionCompiler.isConstant(node) ? constant(ExpressionCompiler.foldConstant(node)) : node;
+    }
+
+    public static ExpressionNode binary(char operator, ExpressionNode left, ExpressionNode right) {
+        if (left instanceof ExpressionNode.Constant l && right instanceof ExpressionNode.Constant r) {
+            return constant(BuiltinFunctions.applyOperator(operator, l.value(), r.value()));
+        }
+
+        switch (operator) {
+            case '+' -> {
+                if (isValue(left, 0)) return right;
+                if (isValue(right, 0)) return left;
+                if (right instanceof ExpressionNode.Negate n) return subtract(left, n.operand());
+            }
+            case '-' -> {
+                if (isValue(right, 0)) return left;
+                if (isValue(left, 0)) return negate(right);
+                if (right instanceof ExpressionNode.Negate n) return add(left, n.operand());
+            }
+            case '*' -> {
+                if (isValue(left, 1)) return right;
+                if (isValue(right, 1)) return left;
+                if (isValue(left, -1)) return negate(right);
+                if (isValue(right, -1)) return negate(left);
+                if (right instanceof ExpressionNode.Constant) return multiply(right, left);
+                if (left instanceof ExpressionNode.Constant c && right instanceof ExpressionNode.Binary b
+                        && b.operator() == '*' && b.left() instanceof ExpressionNode.Constant inner) {
+                    return multiply(constant(c.value() * inner.value()), b.right());
+                }
+                if (left instanceof ExpressionNode.Negate n) return negate(multiply(n.operand(), right));
+                if (right instanceof ExpressionNode.Negate n) return negate(multiply(left, n.operand()));
+                if (left.equals(right)) return power(left, constant(2));
+            }
+            case '/' -> {
+                if (isValue(right, 1)) return left;
+                if (right instanceof ExpressionNode.Constant c) return multiply(constant(1 / c.value()), left);
+                if (left instanceof ExpressionNode.Negate n) return negate(divide(n.operand(), right));
+            }
+            case '^' -> {
+                if (isValue(right, 0)) return constant(1);
+                if (isValue(right, 1)) return left;
+                if (left instanceof ExpressionNode.Binary b && b.operator() == '^'
+                        && b.right() instanceof ExpressionNode.Constant inner && right instanceof ExpressionNode.Constant outer
+                        && inner.value() == Math.rint(inner.value()) && outer.value() == Math.rint(outer.value())) {
+                    return power(b.left(), constant(inner.value() * outer.value()));
+                }
+            }
+            default -> {
+            }
+        }
+        return new ExpressionNode.Binary(operator, left, right);
+    }
+
+    private static boolean isValue(ExpressionNode node, double value) {
+        return node instanceof ExpressionNode.Constant c && c.value() == value;
+    }
+}
@@ -0,0 +1,90 @@
+package az.jahangir.service.expression;
+
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.shuntingyard.ShuntingYard;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+public final class ExpressionTreeBuilder {
+
+    private ExpressionTreeBuilder() {
+    }
+
+    public static ExpressionNode build(String functionString, Set<String> variables) {
+        Set<String> variableNames = new HashSet<>(variables);
+        variableNames.addAll(BuiltinFunctions.CONSTANTS.keySet());
+        Token[] tokens = ShuntingYard.convertToRPN(functionString, Collections.emptyMap(), Collections.emptyMap(), variableNames, true);
+        return fromRpn(tokens);
+    }
+
+    public static ExpressionNode fromRpn(Token[] tokens) {
+        Deque<ExpressionNode> stack = new ArrayDeque<>();
+
+        for (Token token : tokens) {
+            switch (token.getType()) {
+                case Token.TOKEN_NUMBER -> stack.push(new ExpressionNode.Constant(((NumberToken) token).getValue()));
+                case Token.TOKEN_VARIABLE -> {
+                    String name = ((VariableToken) token).getName();
+                    Double constant = BuiltinFunctions.CONSTANTS.get(name);
+                    stack.push(constant != null ? new ExpressionNode.Constant(constant) : new ExpressionNode.Variable(name));
+                }
+                case Token.TOKEN_OPERATOR -> stack.push(operatorNode(((OperatorToken) token).getOperator(), stack));
+                case Token.TOKEN_FUNCTION -> stack.push(functionNode(((FunctionToken) token).getFunction(), stack));
+                default -> throw new UnsupportedOperationException("Unexpected token type: " + token.getType());
+            }
+        }
+
+        if (stack.size() != 1) {
+            throw new IllegalArgumentException("Invalid number of operands in expression");
+        }
+        return stack.pop();
+    }
+
+    private static ExpressionNode operatorNode(Operator operator, Deque<ExpressionNode> stack) {
+        String symbol = operator.getSymbol();
+        if (symbol.length() != 1 || !BuiltinFunctions.isOperator(symbol.charAt(0))) {
+            throw new UnsupportedOperationException("Unsupported operator: " + symbol);
+        }
+
+        char op = symbol.charAt(0);
+        if (operator.getNumOperands() == 1) {
+            ExpressionNode operand = pop(stack);
+            return op == '-' ? new ExpressionNode.Negate(operand) : operand;
+        }
+
+        ExpressionNode right = pop(stack);
+        ExpressionNode left = pop(stack);
+        return new ExpressionNode.Binary(op, left, right);
+    }
+
+    private static ExpressionNode functionNode(Function function, Deque<ExpressionNode> stack) {
+        int arity = function.getNumArguments();
+        if (!BuiltinFunctions.isSupported(function.getName(), arity)) {
+            throw new UnsupportedOperationException("Unsupported function: " + function.getName());
+        }
+
+        ExpressionNode[] arguments = new ExpressionNode[arity];
+        for (int i = arity - 1; i >= 0; i--) {
+            arguments[i] = pop(stack);
+        }
+        return new ExpressionNode.Call(function.getName(), Arrays.asList(arguments));
+    }
+
+    private static ExpressionNode pop(Deque<ExpressionNode> stack) {
+        if (stack.isEmpty()) {
+            throw new IllegalArgumentException("Invalid number of operands in expression");
+        }
+        return stack.pop();
+    }
+}
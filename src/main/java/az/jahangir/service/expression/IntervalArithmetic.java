@@ -0,0 +1,224 @@
+package az.jahangir.service.expression;
+
+import az.jahangir.model.Interval;
+
+import java.util.function.DoubleUnaryOperator;
+
+public final class IntervalArithmetic {
+
+    private static final double TWO_PI = 2 * Math.PI;
+    private static final double HALF_PI = Math.PI / 2;
+    private static final double MAX_REDUCIBLE_ARGUMENT = 1e9;
+    private static final int LIBRARY_ULPS = 2;
+
+    private static final Interval UNIT = new Interval(-1, 1);
+    private static final Interval ONE = Interval.point(1);
+
+    private IntervalArithmetic() {
+    }
+
+    public static Interval negate(Interval a) {
+        if (a.isEmpty()) return a;
+        return new Interval(-a.hi(), -a.lo());
+    }
+
+    public static Interval add(Interval a, Interval b) {
+        if (a.isEmpty() || b.isEmpty()) return Interval.EMPTY;
+        double lo = a.lo() + b.lo();
+        double hi = a.hi() + b.hi();
+        return outward(Double.isNaN(lo) ? Double.NEGATIVE_INFINITY : lo, Double.isNaN(hi) ? Double.POSITIVE_INFINITY : hi, 1);
+    }
+
+    public static Interval subtract(Interval a, Interval b) {
+        return add(a, negate(b));
+    }
+
+    public static Interval multiply(Interval a, Interval b) {
+        if (a.isEmpty() || b.isEmpty()) return Interval.EMPTY;
+        double p1 = product(a.lo(), b.lo());
+        double p2 = product(a.lo(), b.hi());
+        double p3 = product(a.hi(), b.lo());
+        double p4 = product(a.hi(), b.hi());
+        return outward(Math.min(Math.min(p1, p2), Math.min(p3, p4)), Math.max(Math.max(p1, p2), Math.max(p3, p4)), 1);
+    }
+
+    public static Interval divide(Interval a, Interval b) {
+        if (a.isEmpty() || b.isEmpty()) return Interval.EMPTY;
+        if (b.lo() == 0 && b.hi() == 0) return Interval.EMPTY;
+        if (b.lo() < 0 && b.hi() > 0) return Interval.ENTIRE;
+
+        Interval reciprocal;
+        if (b.lo() == 0) {
+            reciprocal = new Interval(Math.nextDown(1 / b.hi()), Double.POSITIVE_INFINITY);
+        } else if (b.hi() == 0) {
+            reciprocal = new Interval(Double.NEGATIVE_INFINITY, Math.nextUp(1 / b.lo()));
+        } else {
+            reciprocal = outward(1 / b.hi(), 1 / b.lo(), 1);
+        }
+        return multiply(a, reciprocal);
+    }
+
+    public static Interval remainder(Interval a, Interval b) {
+        if (a.isEmpty() || b.isEmpty()) return Interval.EMPTY;
+        if (b.lo() == 0 && b.hi() == 0) return Interval.EMPTY;
+
+        double modulus = Math.max(Math.abs(b.lo()), Math.abs(b.hi()));
+        if (b.isPoint() && a.lo() > -modulus && a.hi() < modulus) return a;
+        if (a.lo() >= 0) return new Interval(0, modulus);
+        if (a.hi() <= 0) return new Interval(-modulus, 0);
+        return new Interval(-modulus, modulus);
+    }
+
+    public static Interval power(Interval base, Interval exponent) {
+        if (base.isEmpty() || exponent.isEmpty()) return Interval.EMPTY;
+        if (exponent.isPoint()) return power(base, exponent.lo());
+        if (base.lo() > 0) {
+            return exp(multiply(exponent, log(base)));
+        }
+        return Interval.ENTIRE;
+    }
+
+    public static Interval power(Interval base, double exponent) {
+        if (base.isEmpty() || Double.isNaN(exponent)) return Interval.EMPTY;
+        if (exponent == 0) return ONE;
+        if (exponent == 1) return base;
+
+        if (exponent == Math.rint(exponent) && Math.abs(exponent) < 1L << 53) {
+            if (exponent < 0) {
+                return divide(ONE, power(base, -exponent));
+            }
+            double lo = Math.pow(base.lo(), exponent);
+            double hi = Math.pow(base.hi(), exponent);
+            boolean odd = exponent % 2 != 0;
+            if (odd || base.lo() >= 0) return outward(lo, hi, LIBRARY_ULPS);
+            if (base.hi() <= 0) return outward(hi, lo, LIBRARY_ULPS);
+            return outward(0, Math.max(lo, hi), LIBRARY_ULPS);
+        }
+
+        if (base.hi() < 0) return Interval.EMPTY;
+        double lo = Math.max(base.lo(), 0);
+        double atLo = Math.pow(lo, exponent);
+        double atHi = Math.pow(base.hi(), exponent);
+        return exponent > 0 ? outward(atLo, atHi, LIBRARY_ULPS) : outward(atHi, atLo, LIBRARY_ULPS);
+    }
+
+    public static Interval exp(Interval a) {
+        return increasing(a, Math::exp, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    public static Interval log(Interval a) {
+        return increasing(a, Math::log, 0, Double.POSITIVE_INFINITY);
+    }
+
+    public static Interval apply(String name, Interval a) {
+        if (a.isEmpty()) return Interval.EMPTY;
+        return switch (name) {
+            case "sin" -> sin(a);
+            case "cos" -> cos(a);
+            case "tan" -> periodicIncreasing(a, Math::tan, HALF_PI);
+            case "cot" -> negate(periodicIncreasing(a, x -> -1d / Math.tan(x), 0));
+            case "asin" -> increasing(a, Math::asin, -1, 1);
+            case "acos" -> decreasing(a, Math::acos, -1, 1);
+            case "atan" -> increasing(a, Math::atan, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            case "sinh" -> increasing(a, Math::sinh, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            case "cosh" -> even(a, Math::cosh);
+            case "tanh" -> increasing(a, Math::tanh, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            case "log" -> log(a);
+            case "log2" -> increasing(a, BuiltinFunctions.unary("log2"), 0, Double.POSITIVE_INFINITY);
+            case "log10" -> increasing(a, Math::log10, 0, Double.POSITIVE_INFINITY);
+            case "log1p" -> increasing(a, Math::log1p, -1, Double.POSITIVE_INFINITY);
+            case "exp" -> exp(a);
+            case "expm1" -> increasing(a, Math::expm1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            case "sqrt" -> increasing(a, Math::sqrt, 0, Double.POSITIVE_INFINITY);
+            case "cbrt" -> increasing(a, Math::cbrt, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            case "abs" -> even(a, Math::abs);
+            case "floor" -> new Interval(Math.floor(a.lo()), Math.floor(a.hi()));
+            case "ceil" -> new Interval(Math.ceil(a.lo()), Math.ceil(a.hi()));
+            case "signum" -> new Interval(Math.signum(a.lo()), Math.signum(a.hi()));
+            default -> throw new UnsupportedOperationException("No interval extension for: " + name);
+        };
+    }
+
+    public static Interval apply(String name, Interval a, Interval b) {
+        return switch (name) {
+            case "pow" -> power(a, b);
+            default -> throw new UnsupportedOperationException("No interval extension for: " + name);
+        };
+    }
+
+    public static Interval applyOperator(char operator, Interval a, Interval b) {
+        return switch (operator) {
+            case '+' -> add(a, b);
+            case '-' -> subtract(a, b);
+            case '*' -> multiply(a, b);
+            case '/' -> divide(a, b);
+            case '^' -> power(a, b);
+            case '%' -> remainder(a, b);
+            default -> throw new UnsupportedOperationException("Unsupported operator: " + operator);
+        };
+    }
+
+    private static Interval sin(Interval a) {
+        return cos(subtract(a, Interval.point(HALF_PI)));
+    }
+
+    private static Interval cos(Interval a) {
+        if (!a.isBounded() || a.width() >= TWO_PI || Math.max(-a.lo(), a.hi()) > MAX_REDUCIBLE_ARGUMENT) return UNIT;
+
+        double atLo = Math.cos(a.lo());
+        double atHi = Math.cos(a.hi());
+        Interval result = outward(Math.min(atLo, atHi), Math.max(atLo, atHi), LIBRARY_ULPS);
+        double lo = Math.max(result.lo(), -1);
+        double hi = Math.min(result.hi(), 1);
+        if (containsMultiple(a, 0, TWO_PI)) hi = 1;
+        if (containsMultiple(a, Math.PI, TWO_PI)) lo = -1;
+        return new Interval(lo, hi);
+    }
+
+    private static Interval periodicIncreasing(Interval a, DoubleUnaryOperator function, double pole) {
+        if (!a.isBounded() || a.width() >= Math.PI || Math.max(-a.lo(), a.hi()) > MAX_REDUCIBLE_ARGUMENT) return Interval.ENTIRE;
+        if (containsMultiple(a, pole, Math.PI)) return Interval.ENTIRE;
+        return outward(function.applyAsDouble(a.lo()), function.applyAsDouble(a.hi()), LIBRARY_ULPS);
+    }
+
+    private static boolean containsMultiple(Interval a, double offset, double period) {
+        double slack = 4 * Math.ulp(Math.max(Math.abs(a.lo()), Math.abs(a.hi())) + period);
+        double k = Math.ceil((a.lo() - slack - offset) / period);
+        return offset + k * period <= a.hi() + slack;
+    }
+
+    private static Interval increasing(Interval a, DoubleUnaryOperator function, double domainLo, double domainHi) {
+        double lo = Math.max(a.lo(), domainLo);
+        double hi = Math.min(a.hi(), domainHi);
+        if (lo > hi) return Interval.EMPTY;
+        return outward(function.applyAsDouble(lo), function.applyAsDouble(hi), LIBRARY_ULPS);
+    }
+
+    private static Interval decreasing(Interval a, DoubleUnaryOperator function, double domainLo, double domainHi) {
+        double lo = Math.max(a.lo(), domainLo);
+        double hi = Math.min(a.hi(), domainHi);
+        if (lo > hi) return Interval.EMPTY;
+        return outward(function.applyAsDouble(hi), function.applyAsDouble(lo), LIBRARY_ULPS);
+    }
+
+    private static Interval even(Interval a, DoubleUnaryOperator function) {
+        double atLo = function.applyAsDouble(a.lo());
+        double atHi = function.applyAsDouble(a.hi());
+        double hi = Math.max(atLo, atHi);
+        double lo = a.contains(0) ? function.applyAsDouble(0) : Math.min(atLo, atHi);
+        return outward(lo, hi, LIBRARY_ULPS);
+    }
+
+    private static double product(double a, double b) {
+        return a == 0 || b == 0 ? 0 : a * b;
+    }
+
+    private static Interval outward(double lo, double hi, int ulps) {
+        if (Double.isNaN(lo) || Double.isNaN(hi)) return Interval.ENTIRE;
+        for (int i = 0; i < ulps; i++) {
+            lo = Math.nextDown(lo);
+            hi = Math.nextUp(hi);
+        }
+        return new Interval(lo, hi);
+    }
+}
@@ -0,0 +1,60 @@
+package az.jahangir.service.expression;
+
+import az.jahangir.model.Interval;
+import az.jahangir.model.IntervalBivariateFunction;
+import az.jahangir.model.IntervalFunction;
+
+public final class IntervalEvaluator {
+
+    private IntervalEvaluator() {
+    }
+
+    public static IntervalFunction compile(ExpressionNode node, String variable) {
+        IntervalBivariateFunction program = compileNode(node, variable, null);
+        return (lo, hi) -> program.apply(Interval.of(lo, hi), Interval.EMPTY);
+    }
+
+    public static IntervalBivariateFunction compileBivariate(ExpressionNode node, String first, String second) {
+        return compileNode(node, first, second);
+    }
+
+    private static IntervalBivariateFunction compileNode(ExpressionNode node, String first, String second) {
+        if (ExpressionCompiler.isConstant(node)) {
+            Interval value = Interval.point(ExpressionCompiler.foldConstant(node));
+            return (x, y) -> value;
+        }
+
+        if (node instanceof ExpressionNode.Variable v) {
+            if (v.name().equals(first)) return (x, y) -> x;
+            if (v.name().equals(second)) return (x, y) -> y;
+            throw new UnsupportedOperationException("Unknown variable: " + v.name());
+        }
+
+        if (node instanceof ExpressionNode.Negate n) {
+            IntervalBivariateFunction operand = compileNode(n.operand(), first, second);
+            return (x, y) -> IntervalArithmetic.negate(operand.apply(x, y));
+        }
+
+        if (node instanceof ExpressionNode.Binary b) {
+            IntervalBivariateFunction left = compileNode(b.left(), first, second);
+            char operator = b.operator();
+            if (operator == '^' && ExpressionCompiler.isConstant(b.right())) {
+                double exponent = ExpressionCompiler.foldConstant(b.right());
+                return (x, y) -> IntervalArithmetic.power(left.apply(x, y), exponent);
+            }
+            IntervalBivariateFunction right = compileNode(b.right(), first, second);
+            return (x, y) -> IntervalArithmetic.applyOperator(operator, left.apply(x, y), right.apply(x, y));
+        }
+
+        ExpressionNode.Call call = (ExpressionNode.Call) node;
+        String name = call.name();
+        if (call.arguments().size() == 1) {
+            IntervalBivariateFunction argument = compileNode(call.arguments().get(0), first, second);
+            return (x, y) -> IntervalArithmetic.apply(name, argument.apply(x, y));
+        }
+
+        IntervalBivariateFunction a = compileNode(call.arguments().get(0), first, second);
+        IntervalBivariateFunction b = compileNode(call.arguments().get(1), first, second);
+        return (x, y) -> IntervalArithmetic.apply(name, a.apply(x, y), b.apply(x, y));
+    }
+}
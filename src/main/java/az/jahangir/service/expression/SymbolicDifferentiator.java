@@ -0,0 +1,107 @@
+package az.jahangir.service.expression;
+
+import static az.jahangir.service.expression.ExpressionSimplifier.add;
+import static az.jahangir.service.expression.ExpressionSimplifier.call;
+import static az.jahangir.service.expression.ExpressionSimplifier.constant;
+import static az.jahangir.service.expression.ExpressionSimplifier.divide;
+import static az.jahangir.service.expression.ExpressionSimplifier.multiply;
+import static az.jahangir.service.expression.ExpressionSimplifier.negate;
+import static az.jahangir.service.expression.ExpressionSimplifier.power;
+import static az.jahangir.service.expression.ExpressionSimplifier.subtract;
+
+public final class SymbolicDifferentiator {
+
+    private static final ExpressionNode ONE = constant(1);
+    private static final ExpressionNode TWO = constant(2);
+
+    private SymbolicDifferentiator() {
+    }
+
+    public static ExpressionNode differentiate(ExpressionNode node, String variable, int order) {
+        ExpressionNode result = ExpressionSimplifier.simplify(node);
+        for (int i = 0; i < order; i++) {
+            result = differentiate(result, variable);
+        }
+        return result;
+    }
+
+    public static ExpressionNode differentiate(ExpressionNode node, String variable) {
+        if (node instanceof ExpressionNode.Constant) return constant(0);
+        if (node instanceof ExpressionNode.Variable v) return constant(v.name().equals(variable) ? 1 : 0);
+        if (node instanceof ExpressionNode.Negate n) return negate(differentiate(n.operand(), variable));
+        if (node instanceof ExpressionNode.Binary b) return differentiateBinary(b, variable);
+        return differentiateCall((ExpressionNode.Call) node, variable);
+    }
+
+    private static ExpressionNode differentiateBinary(ExpressionNode.Binary b, String variable) {
+        ExpressionNode u = b.left();
+        ExpressionNode v = b.right();
+        ExpressionNode du = differentiate(u, variable);
+        ExpressionNode dv = differentiate(v, variable);
+
+        return switch (b.operator()) {
+            case '+' -> add(du, dv);
+            case '-' -> subtract(du, dv);
+            case '*' -> add(multiply(du, v), multiply(u, dv));
+            case '/' -> divide(subtract(multiply(du, v), multiply(u, dv)), power(v, TWO));
+            case '^' -> differentiatePower(u, v, du, dv);
+            case '%' -> subtract(du, multiply(dv, truncate(divide(u, v))));
+            default -> throw new UnsupportedOperationException("Unsupported operator: " + b.operator());
+        };
+    }
+
+    private static ExpressionNode differentiatePower(ExpressionNode u, ExpressionNode v, ExpressionNode du, ExpressionNode dv) {
+        if (v instanceof ExpressionNode.Constant c) {
+            return multiply(multiply(c, power(u, constant(c.value() - 1))), du);
+        }
+        if (u instanceof ExpressionNode.Constant c) {
+            return multiply(multiply(power(u, v), constant(Math.log(c.value()))), dv);
+        }
+        return multiply(power(u, v), add(multiply(dv, call("log", u)), divide(multiply(v, du), u)));
+    }
+
+    private static ExpressionNode truncate(ExpressionNode node) {
+        return multiply(call("signum", node), call("floor", call("abs", node)));
+    }
+
+    private static ExpressionNode differentiateCall(ExpressionNode.Call call, String variable) {
+        if (call.arguments().size() == 2) {
+            ExpressionNode first = call.arguments().get(0);
+            ExpressionNode second = call.arguments().get(1);
+            return switch (call.name()) {
+                case "pow" -> differentiatePower(first, second, differentiate(first, variable), differentiate(second, variable));
+                default -> throw new UnsupportedOperationException("No derivative rule for " + call.name());
+            };
+        }
+
+        ExpressionNode u = call.arguments().get(0);
+        ExpressionNode du = differentiate(u, variable);
+        if (du instanceof ExpressionNode.Constant c && c.value() == 0) return constant(0);
+        return multiply(outerDerivative(call.name(), u), du);
+    }
+
+    private static ExpressionNode outerDerivative(String name, ExpressionNode u) {
+        return switch (name) {
+            case "sin" -> call("cos", u);
+            case "cos" -> negate(call("sin", u));
+            case "tan" -> divide(ONE, power(call("cos", u), TWO));
+            case "cot" -> negate(divide(ONE, power(call("sin", u), TWO)));
+            case "asin" -> divide(ONE, call("sqrt", subtract(ONE, power(u, TWO))));
+            case "acos" -> negate(divide(ONE, call("sqrt", subtract(ONE, power(u, TWO)))));
+            case "atan" -> divide(ONE, add(ONE, power(u, TWO)));
+            case "sinh" -> call("cosh", u);
+            case "cosh" -> call("sinh", u);
+            case "tanh" -> divide(ONE, power(call("cosh", u), TWO));
+            case "log" -> divide(ONE, u);
+            case "log2" -> divide(ONE, multiply(constant(Math.log(2)), u));
+            case "log10" -> divide(ONE, multiply(constant(Math.log(10)), u));
+            case "log1p" -> divide(ONE, add(ONE, u));
+            case "exp", "expm1" -> call("exp", u);
+            case "sqrt" -> divide(ONE, multiply(TWO, call("sqrt", u)));
+            case "cbrt" -> divide(ONE, multiply(constant(3), power(call("cbrt", u), TWO)));
+            case "abs" -> call("signum", u);
+            case "floor", "ceil", "signum" -> constant(0);
+            default -> throw new UnsupportedOperationException("No derivative rule for " + name);
+        };
+    }
+}
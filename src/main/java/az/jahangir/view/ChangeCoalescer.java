@@ -0,0 +1,49 @@
+package az.jahangir.view;
+
+import az.jahangir.model.GraphModel;
+import az.jahangir.model.ModelChange;
+import az.jahangir.model.ModelDelta;
+
+import javax.swing.Timer;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.EnumSet;
+import java.util.function.Consumer;
+
+public class ChangeCoalescer implements PropertyChangeListener {
+
+    public static final int FRAME_INTERVAL_MILLIS = 16;
+
+    private final Consumer<ModelDelta> consumer;
+    private final RenderMetrics metrics;
+    private final Timer timer;
+    private final EnumSet<ModelChange> pending = EnumSet.noneOf(ModelChange.class);
+
+    public ChangeCoalescer(GraphModel model, RenderMetrics metrics, Consumer<ModelDelta> consumer) {
+        this.metrics = metrics;
+        this.consumer = consumer;
+        this.timer = new Timer(FRAME_INTERVAL_MILLIS, e -> flush());
+        this.timer.setRepeats(false);
+        model.addPropertyChangeListener(this);
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        if (!pending.isEmpty()) {
+            metrics.recordEventCoalesced();
+        }
+        pending.add(ModelChange.fromProperty(evt.getPropertyName()));
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    public void flush() {
+        timer.stop();
+        if (pending.isEmpty()) return;
+
+        ModelDelta delta = new ModelDelta(pending);
+        pending.clear();
+        consumer.accept(delta);
+    }
+}
@@ -0,0 +1,19 @@
+package az.jahangir.view;
+
+import az.jahangir.model.AnchoredViewport;
+import az.jahangir.model.DataSeries;
+import az.jahangir.model.PlaneCurve;
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.TrackedPoints;
+import az.jahangir.model.Viewport;
+
+import java.util.List;
+
+public record FrameRequest(int width, int height, AnchoredViewport viewport, List<PlottableFunction> functions, List<PlaneCurve> curves,
+                           List<DataSeries> dataSeries, TrackedPoints trackedPoints) {
+
+    public FrameRequest(int width, int height, Viewport viewport, List<PlottableFunction> functions, List<PlaneCurve> curves,
+                        List<DataSeries> dataSeries, TrackedPoints trackedPoints) {
+        this(width, height, AnchoredViewport.of(viewport), functions, curves, dataSeries, trackedPoints);
+    }
+}
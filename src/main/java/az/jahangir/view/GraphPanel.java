@@ -1,212 +1,308 @@
 package az.jahangir.view;
 
+import az.jahangir.model.AnchoredViewport;
+import az.jahangir.model.DataSeries;
 import az.jahangir.model.GraphModel;
+import az.jahangir.model.ModelDelta;
+import az.jahangir.model.PlaneCurve;
 import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.TrackedPoints;
+import az.jahangir.model.Viewport;
 
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
 import javax.swing.JPanel;
-import java.awt.BasicStroke;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
-import java.awt.geom.Path2D;
-import java.awt.geom.Point2D;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
+import java.awt.Shape;
+import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.List;
 
-public class GraphPanel extends JPanel implements PropertyChangeListener {
+public class GraphPanel extends JPanel {
+
+    public static final String HUD_PROPERTY = "graphplotter.hud";
+
+    private static final Font HUD_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final Color HUD_BACKGROUND = new Color(0, 0, 0, 170);
 
     private final GraphModel model;
-    private final int PADDING = 25;
+    private final RenderMetrics metrics;
+    private final GraphRenderer renderer;
+    private final RenderPipeline renderPipeline;
+    private RenderedFrame frame;
+    private BufferedImage backgroundLayer;
+    private BackgroundKey backgroundKey;
+    private BufferedImage legendLayer;
+    private Rectangle legendBounds = new Rectangle();
+    private LegendKey legendKey;
+    private boolean hudVisible = Boolean.getBoolean(HUD_PROPERTY);
+    private boolean firstFramePainted;
+    private Runnable firstFrameAction;
 
     public GraphPanel(GraphModel model) {
         this.model = model;
-        this.model.addPropertyChangeListener(this);
+        this.metrics = new RenderMetrics();
+        this.renderer = new GraphRenderer(metrics);
+        this.renderPipeline = new RenderPipeline(renderer, metrics, this::showFrame);
+        new ChangeCoalescer(model, metrics, this::modelChanged);
         setPreferredSize(new Dimension(800, 600));
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                requestFrame();
+            }
+        });
+
+        getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("F3"), "toggleHud");
+        getActionMap().put("toggleHud", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setHudVisible(!hudVisible);
+            }
+        });
     }
 
-    @Override
-    public void propertyChange(PropertyChangeEvent evt) { repaint(); }
+    public RenderMetrics getMetrics() {
+        return metrics;
+    }
+
+    public RenderedFrame getFrame() {
+        return frame;
+    }
+
+    public void whenFirstFramePainted(Runnable action) {
+        this.firstFrameAction = action;
+    }
+
+    public boolean isHudVisible() {
+        return hudVisible;
+    }
+
+    public void setHudVisible(boolean hudVisible) {
+        this.hudVisible = hudVisible;
+        repaint();
+    }
+
+    private void modelChanged(ModelDelta delta) {
+        if (delta.affectsCurves()) {
+            requestFrame();
+        }
+        repaint();
+    }
+
+    private void requestFrame() {
+        renderPipeline.request(new FrameRequest(getWidth(), getHeight(), model.getAnchoredViewport(), model.getFunctions(), model.getCurves(),
+                model.getDataSeries(), new TrackedPoints()));
+    }
+
+    private void showFrame(RenderedFrame newFrame) {
+        RenderedFrame previous = frame;
+        frame = newFrame;
+        if (previous != null) {
+            renderPipeline.recycle(previous.image());
+        }
+        repaint();
+    }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
         int width = getWidth();
         int height = getHeight();
+        if (width <= 2 * GraphRenderer.PADDING || height <= 2 * GraphRenderer.PADDING) return;
 
-        g2d.setColor(Color.WHITE);
-        g2d.fillRect(0, 0, width, height);
-
-        double xMin = model.getXMin();
-        double xMax = model.getXMax();
-        double yMin = model.getYMin();
-        double yMax = model.getYMax();
-
-        double xScale = (double) (width - 2 * PADDING) / (xMax - xMin);
-        double yScale = (double) (height - 2 * PADDING) / (yMax - yMin);
-        int originX = PADDING - (int) (xMin * xScale);
-        int originY = height - PADDING + (int) (yMin * yScale);
-
-        drawGrid(g2d, width, height, originX, originY, xScale, yScale);
-        drawAxes(g2d, width, height, originX, originY);
-
-        for (PlottableFunction function : model.getFunctions()) {
-            drawSingleFunction(g2d, width, height, xScale, yScale, function);
-        }
-
-        drawTrackedPoints(g2d, width, height, xScale, yScale);
-        drawLegend(g2d, width, height);
-    }
-
-    private void drawSingleFunction(Graphics2D g2d, int width, int height, double xScale, double yScale, PlottableFunction function) {
-        g2d.setColor(function.color());
-        g2d.setStroke(new BasicStroke(2f));
-        Path2D.Double path = new Path2D.Double();
-        boolean firstPoint = true;
-
-        for (int px = PADDING; px <= width - PADDING; px++) {
-            double x = model.getXMin() + (px - PADDING) / xScale;
-            try {
-                double y = function.evaluate(x);
-
-                if (Double.isFinite(y) && y >= model.getYMin() && y <= model.getYMax()) {
-                    int py = height - PADDING - (int) ((y - model.getYMin()) * yScale);
-                    if (firstPoint) {
-                        path.moveTo(px, py);
-                        firstPoint = false;
-                    } else {
-                        path.lineTo(px, py);
-                    }
-                } else {
-                    firstPoint = true;
-                }
-            } catch (Exception ex) {
-                firstPoint = true;
+        Graphics2D g2d = (Graphics2D) g;
+        AnchoredViewport viewport = model.getAnchoredViewport();
+        long layerStart = System.nanoTime();
+        g2d.drawImage(backgroundLayer(width, height, viewport), 0, 0, null);
+        endLayer(RenderMetrics.Phase.GRID, layerStart);
+        if (frame != null) {
+            drawCurveLayer(g2d, width, height, viewport);
+            if (!firstFramePainted && model.getRawUserInputFunction() != null && frame.functions().equals(model.getFunctions())) {
+                firstFramePainted();
             }
         }
-        g2d.draw(path);
+        layerStart = System.nanoTime();
+        BufferedImage legend = legendLayer(width, height);
+        if (legend != null) {
+            g2d.drawImage(legend, legendBounds.x, legendBounds.y, null);
+        }
+        layerStart = endLayer(RenderMetrics.Phase.LEGEND, layerStart);
+        if (!model.getFeaturePoints().isEmpty() && !viewport.requiresPrecision()) {
+            drawFeatures(g2d, width, height, viewport.absolute());
+        }
+        if (model.isTracking() && !viewport.requiresPrecision()) {
+            drawTracking(g2d);
+        }
+        endLayer(RenderMetrics.Phase.TRACKING, layerStart);
+        if (hudVisible) {
+            drawHud(g2d);
+        }
     }
 
-    private void drawLegend(Graphics2D g2d, int width, int height) {
-        if (model.getFunctions().isEmpty()) return;
-
-        Font legendFont = new Font("Arial", Font.BOLD, 14);
-        g2d.setFont(legendFont);
-        FontMetrics fm = g2d.getFontMetrics();
-        int legendPadding = 10;
-        int lineSpacing = 5;
+    private long endLayer(RenderMetrics.Phase phase, long start) {
+        long now = System.nanoTime();
+        metrics.recordLayer(phase, now - start);
+        return now;
+    }
 
-        int maxTextWidth = 0;
-        for (PlottableFunction func : model.getFunctions()) {
-            int textWidth = fm.stringWidth(func.name());
-            if (textWidth > maxTextWidth) maxTextWidth = textWidth;
+    private void firstFramePainted() {
+        firstFramePainted = true;
+        metrics.recordFirstFrame();
+        if (firstFrameAction != null) {
+            SwingUtilities.invokeLater(firstFrameAction);
         }
+    }
 
-        int boxWidth = maxTextWidth + (2 * legendPadding);
-        int boxHeight = (model.getFunctions().size() * fm.getHeight()) + ((model.getFunctions().size() - 1) * lineSpacing) + (2 * legendPadding);
-
-        int boxX = width - PADDING - boxWidth - legendPadding;
-        int boxY = height - PADDING - boxHeight - legendPadding;
-
-        g2d.setColor(new Color(255, 255, 255, 200));
-        g2d.fillRect(boxX, boxY, boxWidth, boxHeight);
-
-        g2d.setColor(Color.DARK_GRAY);
-        g2d.drawRect(boxX, boxY, boxWidth, boxHeight);
-
-        int textX = boxX + legendPadding;
-        int currentY = boxY + legendPadding + fm.getAscent();
+    private BufferedImage backgroundLayer(int width, int height, AnchoredViewport viewport) {
+        BackgroundKey key = new BackgroundKey(width, height, viewport);
+        if (key.equals(backgroundKey)) return backgroundLayer;
 
-        for (PlottableFunction func : model.getFunctions()) {
-            g2d.setColor(func.color());
-            g2d.drawString(func.name(), textX, currentY);
-            currentY += fm.getHeight() + lineSpacing;
+        if (backgroundLayer == null || backgroundLayer.getWidth() != width || backgroundLayer.getHeight() != height) {
+            backgroundLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
         }
+        Graphics2D g2d = backgroundLayer.createGraphics();
+        try {
+            renderer.renderBackground(g2d, width, height, viewport);
+        } finally {
+            g2d.dispose();
+        }
+        backgroundKey = key;
+        return backgroundLayer;
     }
 
-    private void drawTrackedPoints(Graphics2D g2d, int width, int height, double xScale, double yScale) {
-        if (!model.isTracking()) return;
+    private void drawCurveLayer(Graphics2D g2d, int width, int height, AnchoredViewport current) {
+        BufferedImage image = frame.image();
+        Viewport viewport = current.offsets();
+        Viewport frameViewport = frame.viewport().relativeTo(current);
+        int frameWidth = image.getWidth();
+        int frameHeight = image.getHeight();
+        if (frameViewport.equals(viewport) && frameWidth == width && frameHeight == height) {
+            g2d.drawImage(image, 0, 0, null);
+            return;
+        }
 
-        List<PlottableFunction> functions = model.getFunctions();
-        List<Point2D.Double> points = model.getTrackedPoints();
+        int padding = GraphRenderer.PADDING;
+        double xScale = (double) (width - 2 * padding) / viewport.xRange();
+        double yScale = (double) (height - 2 * padding) / viewport.yRange();
+        int left = (int) Math.round(padding + (frameViewport.xMin() - viewport.xMin()) * xScale);
+        int top = (int) Math.round(height - padding - (frameViewport.yMax() - viewport.yMin()) * yScale);
+
+        Shape previousClip = g2d.getClip();
+        g2d.clipRect(padding, padding, width - 2 * padding, height - 2 * padding);
+        if (frameWidth == width && frameHeight == height && sameScale(frameViewport, viewport)) {
+            g2d.drawImage(image, left - padding, top - padding, null);
+        } else {
+            int right = (int) Math.round(padding + (frameViewport.xMax() - viewport.xMin()) * xScale);
+            int bottom = (int) Math.round(height - padding - (frameViewport.yMin() - viewport.yMin()) * yScale);
+            g2d.drawImage(image, left, top, right, bottom, padding, padding, frameWidth - padding, frameHeight - padding, null);
+        }
+        g2d.setClip(previousClip);
+    }
 
-        for (int i = 0; i < functions.size() && i < points.size(); i++) {
-            Point2D.Double point = points.get(i);
-            PlottableFunction func = functions.get(i);
+    private static boolean sameScale(Viewport a, Viewport b) {
+        return Math.abs(a.xRange() - b.xRange()) <= 1e-12 * b.xRange() && Math.abs(a.yRange() - b.yRange()) <= 1e-12 * b.yRange();
+    }
 
-            if (point == null) continue;
+    private BufferedImage legendLayer(int width, int height) {
+        LegendKey key = new LegendKey(width, height, List.copyOf(model.getFunctions()), List.copyOf(model.getCurves()),
+                List.copyOf(model.getDataSeries()));
+        if (key.equals(legendKey)) return legendLayer;
 
-            double mathX = point.getX();
-            double mathY = point.getY();
+        legendKey = key;
+        legendBounds = renderer.legendBounds(getFontMetrics(renderer.getLegendFont()), width, height, key.functions(), key.curves(), key.dataSeries());
+        if (legendBounds.isEmpty()) {
+            legendLayer = null;
+            return null;
+        }
 
-            if (mathX < model.getXMin() || mathX > model.getXMax() || mathY < model.getYMin() || mathY > model.getYMax()) continue;
+        legendLayer = new BufferedImage(legendBounds.width, legendBounds.height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = legendLayer.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.translate(-legendBounds.x, -legendBounds.y);
+            renderer.drawLegend(g2d, width, height, key.functions(), key.curves(), key.dataSeries());
+        } finally {
+            g2d.dispose();
+        }
+        return legendLayer;
+    }
 
-            int pixelX = PADDING + (int) ((mathX - model.getXMin()) * xScale);
-            int pixelY = height - PADDING - (int) ((mathY - model.getYMin()) * yScale);
+    private void drawFeatures(Graphics2D g2d, int width, int height, Viewport viewport) {
+        double xScale = (double) (width - 2 * GraphRenderer.PADDING) / viewport.xRange();
+        double yScale = (double) (height - 2 * GraphRenderer.PADDING) / viewport.yRange();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        renderer.drawFeaturePoints(g2d, height, viewport, xScale, yScale, model.getFunctions(), model.getFeaturePoints());
+    }
 
-            g2d.setColor(func.color());
-            g2d.fillOval(pixelX - 5, pixelY - 5, 10, 10);
+    private void drawTracking(Graphics2D g2d) {
+        int width = getWidth();
+        int height = getHeight();
+        Viewport viewport = model.getViewport();
+        double xScale = (double) (width - 2 * GraphRenderer.PADDING) / viewport.xRange();
+        double yScale = (double) (height - 2 * GraphRenderer.PADDING) / viewport.yRange();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        renderer.drawTrackedPoints(g2d, width, height, viewport, xScale, yScale, model.getFunctions(), model.getTrackedPoints());
+    }
 
-            if (i == 0) {
-                g2d.setColor(new Color(150, 150, 150, 150));
-                g2d.setStroke(new BasicStroke(1f));
-                g2d.drawLine(pixelX, PADDING, pixelX, height - PADDING);
-                g2d.drawLine(PADDING, pixelY, width - PADDING, pixelY);
+    private void drawHud(Graphics g) {
+        RenderMetrics.FrameTiming timing = metrics.getLastFrame();
+        List<String> lines = new ArrayList<>();
+        if (timing == null) {
+            lines.add("no frames yet");
+        } else {
+            lines.add(String.format("frame %6.2f ms%s", timing.totalMillis(), timing.preview() ? " (preview)" : ""));
+            for (RenderMetrics.Phase phase : RenderMetrics.Phase.values()) {
+                lines.add(String.format("  %-8s %6.2f ms", phase.name().toLowerCase(), metrics.lastPhaseMillis(phase)));
             }
+            lines.add(String.format("evals %d  samples %d", timing.evaluations(), timing.samples()));
+        }
+        if (metrics.getTimeToFirstFrameMillis() >= 0) {
+            lines.add(String.format("first frame %d ms after launch", metrics.getTimeToFirstFrameMillis()));
+        }
+        lines.add(String.format("latency p50 %s p95 %s p99 %s", latency(metrics.getLatencyP50Millis()),
+                latency(metrics.getLatencyP95Millis()), latency(metrics.getLatencyP99Millis())));
+        lines.add(String.format("frames %d  coalesced %d  cancelled %d  dropped %d", metrics.getFramesRendered(),
+                metrics.getRequestsCoalesced(), metrics.getFramesCancelled(), metrics.getFramesDropped()));
+
+        g.setFont(HUD_FONT);
+        FontMetrics fm = g.getFontMetrics();
+        int hudWidth = 0;
+        for (String line : lines) {
+            hudWidth = Math.max(hudWidth, fm.stringWidth(line));
+        }
+        int x = GraphRenderer.PADDING + 5;
+        int y = GraphRenderer.PADDING + 5;
+        g.setColor(HUD_BACKGROUND);
+        g.fillRect(x, y, hudWidth + 10, lines.size() * fm.getHeight() + 8);
+        g.setColor(Color.WHITE);
+        int baseline = y + 4 + fm.getAscent();
+        for (String line : lines) {
+            g.drawString(line, x + 5, baseline);
+            baseline += fm.getHeight();
         }
     }
 
-    private void drawAxes(Graphics2D g2d, int width, int height, int originX, int originY) {
-        g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(1.5f));
-
-        g2d.drawLine(PADDING, originY, width - PADDING, originY);
-        g2d.drawLine(originX, PADDING, originX, height - PADDING);
-
-        g2d.setFont(new Font("Arial", Font.PLAIN, 12));
-        g2d.drawString("X", width - PADDING, originY - 5);
-        g2d.drawString("Y", originX + 5, PADDING);
+    private record BackgroundKey(int width, int height, AnchoredViewport viewport) {
     }
 
-    private void drawGrid(Graphics2D g2d, int width, int height, int originX, int originY, double xScale, double yScale) {
-        g2d.setColor(new Color(200, 200, 200));
-        g2d.setStroke(new BasicStroke(1f));
-        g2d.setFont(new Font("Arial", Font.PLAIN, 10));
-
-        double xMin = model.getXMin();
-        double xMax = model.getXMax();
-        double yMin = model.getYMin();
-        double yMax = model.getYMax();
-
-        double xRange = xMax - xMin;
-        double yRange = yMax - yMin;
-        double xStep = Math.pow(10, Math.floor(Math.log10(xRange)) - 1);
-        double yStep = Math.pow(10, Math.floor(Math.log10(yRange)) - 1);
-
-        if (xRange / xStep > 20) xStep *= 5;
-        else if (xRange / xStep > 10) xStep *= 2;
-        if (yRange / yStep > 20) yStep *= 5;
-        else if (yRange / yStep > 10) yStep *= 2;
-
-        for (double x = Math.floor(xMin / xStep) * xStep; x <= xMax; x += xStep) {
-            if (Math.abs(x) < 1E-9 * xStep) continue;
-            int px = PADDING + (int) ((x - xMin) * xScale);
-            g2d.drawLine(px, PADDING, px, height - PADDING);
-            g2d.drawString(String.format("%.2g", x), px + 2, originY - 2);
-        }
+    private record LegendKey(int width, int height, List<PlottableFunction> functions, List<PlaneCurve> curves,
+                             List<DataSeries> dataSeries) {
+    }
 
-        for (double y = Math.floor(yMin / yStep) * yStep; y <= yMax; y += yStep) {
-            if (Math.abs(y) < 1E-9 * yStep) continue;
-            int py = height - PADDING - (int) ((y - yMin) * yScale);
-            g2d.drawLine(PADDING, py, width - PADDING, py);
-            g2d.drawString(String.format("%.2g", y), originX + 2, py - 2);
-        }
+    private static String latency(double millis) {
+        return Double.isInfinite(millis) ? ">1s" : "<" + (long) millis + "ms";
     }
-}
\ No newline at end of file
+}
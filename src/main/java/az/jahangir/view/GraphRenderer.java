@@ -0,0 +1,506 @@
+package az.jahangir.view;
+
+import az.jahangir.model.AnchoredViewport;
+import az.jahangir.model.CurveFeature;
+import az.jahangir.model.DataSeries;
+import az.jahangir.model.FeaturePoint;
+import az.jahangir.model.ImplicitCurve;
+import az.jahangir.model.ParametricCurve;
+import az.jahangir.model.PlaneCurve;
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.SampleBuffer;
+import az.jahangir.model.TrackedPoints;
+import az.jahangir.model.Viewport;
+import az.jahangir.service.ImplicitContourer;
+import az.jahangir.service.ParametricSampler;
+import az.jahangir.service.PrecisionSampler;
+import az.jahangir.service.SamplingEngine;
+import az.jahangir.service.SeriesDecimator;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+public class GraphRenderer {
+
+    public static final int PADDING = 25;
+
+    private static final BasicStroke CURVE_STROKE = new BasicStroke(2f);
+    private static final BasicStroke GRID_STROKE = new BasicStroke(1f);
+    private static final BasicStroke AXIS_STROKE = new BasicStroke(1.5f);
+    private static final BasicStroke CROSSHAIR_STROKE = new BasicStroke(1f);
+    private static final Color GRID_COLOR = new Color(200, 200, 200);
+    private static final Color CROSSHAIR_COLOR = new Color(150, 150, 150, 150);
+    private static final Color LEGEND_BACKGROUND = new Color(255, 255, 255, 200);
+    private static final Color INTERSECTION_COLOR = new Color(60, 60, 60);
+    private static final BasicStroke MARKER_STROKE = new BasicStroke(1.5f);
+    private static final int MARKER_RADIUS = 4;
+    private static final Font GRID_FONT = new Font("Arial", Font.PLAIN, 10);
+    private static final Font AXIS_FONT = new Font("Arial", Font.PLAIN, 12);
+    private static final Font LEGEND_FONT = new Font("Arial", Font.BOLD, 14);
+    private static final int LEGEND_PADDING = 10;
+    private static final int LEGEND_LINE_SPACING = 5;
+    private static final int MAX_CACHED_LABELS = 512;
+    private static final double OFFSCREEN_CLAMP_FACTOR = 10;
+    private static final double PREVIEW_TOLERANCE_PX = 2;
+    private static final int MIN_CENTRE_DIGITS = 17;
+    private static final int MAX_CENTRE_DIGITS = 34;
+
+    private final SamplingEngine samplingEngine;
+    private final RenderMetrics metrics;
+    private final long[] phaseNanos = new long[RenderMetrics.Phase.values().length];
+    private final List<SampleBuffer> sampleBuffers = new ArrayList<>();
+    private final SeriesDecimator seriesDecimator = new SeriesDecimator();
+    private final SampleBuffer seriesBuffer = new SampleBuffer();
+    private final ParametricSampler parametricSampler = new ParametricSampler();
+    private final ImplicitContourer implicitContourer = new ImplicitContourer();
+    private final SampleBuffer planeCurveBuffer = new SampleBuffer();
+    private final PrecisionSampler precisionSampler = new PrecisionSampler();
+    private final Path2D.Double curvePath = new Path2D.Double();
+    private final Map<Double, String> tickLabels = new HashMap<>();
+
+    public GraphRenderer() {
+        this(new SamplingEngine(), new RenderMetrics());
+    }
+
+    public GraphRenderer(RenderMetrics metrics) {
+        this(new SamplingEngine(), metrics);
+    }
+
+    public GraphRenderer(SamplingEngine samplingEngine, RenderMetrics metrics) {
+        this.samplingEngine = samplingEngine;
+        this.metrics = metrics;
+    }
+
+    public enum Result {
+        COMPLETE,
+        PREVIEW,
+        CANCELLED
+    }
+
+    public Result render(Graphics2D g2d, FrameRequest request, BooleanSupplier cancelled, boolean previewOnly) {
+        return renderLayers(g2d, request, cancelled, previewOnly, true);
+    }
+
+    public Result renderCurves(Graphics2D g2d, FrameRequest request, BooleanSupplier cancelled, boolean previewOnly) {
+        return renderLayers(g2d, request, cancelled, previewOnly, false);
+    }
+
+    public void renderBackground(Graphics2D g2d, int width, int height, AnchoredViewport anchored) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
+
+        double xScale = (double) (width - 2 * PADDING) / anchored.xRange();
+        double yScale = (double) (height - 2 * PADDING) / anchored.yRange();
+        if (!anchored.requiresPrecision()) {
+            Viewport viewport = anchored.absolute();
+            int originX = PADDING - (int) (viewport.xMin() * xScale);
+            int originY = height - PADDING + (int) (viewport.yMin() * yScale);
+            drawGrid(g2d, width, height, viewport, originX, originY, xScale, yScale);
+            drawAxes(g2d, width, height, originX, originY);
+            return;
+        }
+
+        Viewport offsets = anchored.offsets();
+        double xCentre = 0.5 * (offsets.xMin() + offsets.xMax());
+        double yCentre = 0.5 * (offsets.yMin() + offsets.yMax());
+        Viewport local = new Viewport(offsets.xMin() - xCentre, offsets.xMax() - xCentre, offsets.yMin() - yCentre, offsets.yMax() - yCentre);
+        int originX = clampPixel(PADDING - (anchored.xOrigin() + offsets.xMin()) * xScale, PADDING, width - PADDING);
+        int originY = clampPixel(height - PADDING + (anchored.yOrigin() + offsets.yMin()) * yScale, PADDING, height - PADDING);
+        drawGrid(g2d, width, height, local, originX, originY, xScale, yScale);
+        drawAxes(g2d, width, height, originX, originY);
+
+        String caption = "ticks are offsets from x = " + centreLabel(anchored.xOrigin(), xCentre, anchored.xRange())
+                + ", y = " + centreLabel(anchored.yOrigin(), yCentre, anchored.yRange());
+        g2d.setFont(GRID_FONT);
+        g2d.drawString(caption, width - PADDING - g2d.getFontMetrics().stringWidth(caption), PADDING - 8);
+    }
+
+    private static int clampPixel(double pixel, int min, int max) {
+        return (int) Math.max(min, Math.min(max, pixel));
+    }
+
+    private static String centreLabel(double origin, double offset, double range) {
+        BigDecimal centre = new BigDecimal(origin).add(new BigDecimal(offset));
+        if (centre.signum() == 0) return "0";
+        int digits = (int) Math.ceil(Math.log10(Math.abs(origin + offset) / range)) + 4;
+        return centre.round(new MathContext(Math.max(MIN_CENTRE_DIGITS, Math.min(MAX_CENTRE_DIGITS, digits)))).toString();
+    }
+
+    private Result renderLayers(Graphics2D g2d, FrameRequest request, BooleanSupplier cancelled, boolean previewOnly, boolean composite) {
+        long frameStart = System.nanoTime();
+        Arrays.fill(phaseNanos, 0);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        int width = request.width();
+        int height = request.height();
+        AnchoredViewport anchored = request.viewport();
+        boolean precise = anchored.requiresPrecision();
+        Viewport viewport = precise ? anchored.offsets() : anchored.absolute();
+
+        double xScale = (double) (width - 2 * PADDING) / viewport.xRange();
+        double yScale = (double) (height - 2 * PADDING) / viewport.yRange();
+
+        long phaseStart = System.nanoTime();
+        if (composite) {
+            renderBackground(g2d, width, height, anchored);
+            phaseStart = endPhase(RenderMetrics.Phase.GRID, phaseStart);
+        }
+
+        List<PlottableFunction> functions = request.functions();
+        boolean complete;
+        long functionEvaluations;
+        if (precise) {
+            precisionSampler.sample(functions, anchored, width - 2 * PADDING, sampleBuffers, previewOnly);
+            complete = !previewOnly;
+            functionEvaluations = precisionSampler.getLastEvaluationCount();
+        } else {
+            complete = samplingEngine.sample(functions, viewport, width - 2 * PADDING, height - 2 * PADDING, sampleBuffers, previewOnly);
+            functionEvaluations = samplingEngine.getLastEvaluationCount();
+        }
+        endPhase(RenderMetrics.Phase.SAMPLING, phaseStart);
+
+        int sampleCount = 0;
+        Shape previousClip = g2d.getClip();
+        g2d.clipRect(PADDING, PADDING, width - 2 * PADDING, height - 2 * PADDING);
+        for (int i = 0; i < functions.size(); i++) {
+            if (cancelled.getAsBoolean()) return cancel();
+            drawSingleFunction(g2d, height, viewport, xScale, yScale, functions.get(i).color(), sampleBuffers.get(i));
+            sampleCount += sampleBuffers.get(i).getCount();
+        }
+        long curveEvaluations = 0;
+        List<PlaneCurve> curves = precise ? List.of() : request.curves();
+        List<DataSeries> dataSeries = precise ? List.of() : request.dataSeries();
+        for (PlaneCurve curve : curves) {
+            if (cancelled.getAsBoolean()) return cancel();
+            phaseStart = System.nanoTime();
+            curveEvaluations += samplePlaneCurve(curve, viewport, width - 2 * PADDING, height - 2 * PADDING, previewOnly, cancelled);
+            endPhase(RenderMetrics.Phase.SAMPLING, phaseStart);
+            drawSingleFunction(g2d, height, viewport, xScale, yScale, curve.color(), planeCurveBuffer);
+            sampleCount += planeCurveBuffer.getCount();
+        }
+        complete &= !previewOnly || curves.isEmpty();
+        for (DataSeries series : dataSeries) {
+            if (cancelled.getAsBoolean()) return cancel();
+            phaseStart = System.nanoTime();
+            seriesDecimator.decimate(series, viewport, width - 2 * PADDING, seriesBuffer);
+            endPhase(RenderMetrics.Phase.DATA, phaseStart);
+            drawSingleFunction(g2d, height, viewport, xScale, yScale, series.getColor(), seriesBuffer);
+            sampleCount += seriesBuffer.getCount();
+        }
+        g2d.setClip(previousClip);
+
+        if (composite) {
+            phaseStart = System.nanoTime();
+            if (!precise) {
+                drawTrackedPoints(g2d, width, height, viewport, xScale, yScale, functions, request.trackedPoints());
+            }
+            phaseStart = endPhase(RenderMetrics.Phase.TRACKING, phaseStart);
+            drawLegend(g2d, width, height, functions, request.curves(), request.dataSeries());
+            endPhase(RenderMetrics.Phase.LEGEND, phaseStart);
+        }
+        if (cancelled.getAsBoolean()) return cancel();
+
+        metrics.recordFrame(new RenderMetrics.FrameTiming(phaseNanos.clone(), System.nanoTime() - frameStart,
+                functionEvaluations + curveEvaluations, sampleCount, !complete));
+        return complete ? Result.COMPLETE : Result.PREVIEW;
+    }
+
+    private long samplePlaneCurve(PlaneCurve curve, Viewport viewport, int plotWidth, int plotHeight, boolean previewOnly, BooleanSupplier cancelled) {
+        if (curve instanceof ParametricCurve parametric) {
+            double tolerance = previewOnly ? PREVIEW_TOLERANCE_PX : ParametricSampler.DEFAULT_TOLERANCE_PX;
+            parametricSampler.sample(parametric, viewport, plotWidth, plotHeight, tolerance, planeCurveBuffer);
+            return parametricSampler.getEvaluations();
+        }
+        double leaf = previewOnly ? ImplicitContourer.PREVIEW_LEAF_PX : ImplicitContourer.DEFAULT_LEAF_PX;
+        implicitContourer.contour((ImplicitCurve) curve, viewport, plotWidth, plotHeight, leaf, planeCurveBuffer, cancelled);
+        return implicitContourer.getLastEvaluationCount();
+    }
+
+    private long endPhase(RenderMetrics.Phase phase, long phaseStart) {
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - phaseStart;
+        return now;
+    }
+
+    List<SampleBuffer> copySamples(int functionCount) {
+        List<SampleBuffer> copies = new ArrayList<>(functionCount);
+        for (int i = 0; i < functionCount && i < sampleBuffers.size(); i++) {
+            SampleBuffer source = sampleBuffers.get(i);
+            SampleBuffer copy = new SampleBuffer(source.getCount());
+            copy.appendAll(source);
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private Result cancel() {
+        metrics.recordCancelled();
+        return Result.CANCELLED;
+    }
+
+    void drawSingleFunction(Graphics2D g2d, int height, Viewport viewport, double xScale, double yScale, Color color, SampleBuffer samples) {
+        double xMin = viewport.xMin();
+        double yMin = viewport.yMin();
+        double yLimit = OFFSCREEN_CLAMP_FACTOR * height;
+        double[] sampleXs = samples.getXs();
+        double[] sampleYs = samples.getYs();
+        int sampleCount = samples.getCount();
+
+        long phaseStart = System.nanoTime();
+        g2d.setColor(color);
+        g2d.setStroke(CURVE_STROKE);
+        Path2D.Double path = curvePath;
+        path.reset();
+        boolean firstPoint = true;
+
+        for (int i = 0; i < sampleCount; i++) {
+            double y = sampleYs[i];
+
+            if (Double.isFinite(y)) {
+                double px = PADDING + (sampleXs[i] - xMin) * xScale;
+                double py = height - PADDING - (y - yMin) * yScale;
+                py = Math.max(-yLimit, Math.min(yLimit, py));
+                if (firstPoint) {
+                    path.moveTo(px, py);
+                    firstPoint = false;
+                } else {
+                    path.lineTo(px, py);
+                }
+            } else {
+                firstPoint = true;
+            }
+        }
+        phaseStart = endPhase(RenderMetrics.Phase.PATH, phaseStart);
+        g2d.draw(path);
+        endPhase(RenderMetrics.Phase.STROKE, phaseStart);
+    }
+
+    public Rectangle legendBounds(FontMetrics fm, int width, int height, List<PlottableFunction> functions, List<PlaneCurve> curves,
+                                  List<DataSeries> dataSeries) {
+        int entries = functions.size() + curves.size() + dataSeries.size();
+        if (entries == 0) return new Rectangle();
+
+        int maxTextWidth = 0;
+        for (PlottableFunction func : functions) {
+            int textWidth = fm.stringWidth(func.name());
+            if (textWidth > maxTextWidth) maxTextWidth = textWidth;
+        }
+        for (PlaneCurve curve : curves) {
+            maxTextWidth = Math.max(maxTextWidth, fm.stringWidth(curve.name()));
+        }
+        for (DataSeries series : dataSeries) {
+            maxTextWidth = Math.max(maxTextWidth, fm.stringWidth(series.getName()));
+        }
+
+        int boxWidth = maxTextWidth + (2 * LEGEND_PADDING);
+        int boxHeight = (entries * fm.getHeight()) + ((entries - 1) * LEGEND_LINE_SPACING) + (2 * LEGEND_PADDING);
+
+        int boxX = width - PADDING - boxWidth - LEGEND_PADDING;
+        int boxY = height - PADDING - boxHeight - LEGEND_PADDING;
+        return new Rectangle(boxX, boxY, boxWidth + 1, boxHeight + 1);
+    }
+
+    public Font getLegendFont() {
+        return LEGEND_FONT;
+    }
+
+    public void drawLegend(Graphics2D g2d, int width, int height, List<PlottableFunction> functions, List<PlaneCurve> curves,
+                           List<DataSeries> dataSeries) {
+        if (functions.isEmpty() && curves.isEmpty() && dataSeries.isEmpty()) return;
+
+        g2d.setFont(LEGEND_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+        Rectangle box = legendBounds(fm, width, height, functions, curves, dataSeries);
+
+        g2d.setColor(LEGEND_BACKGROUND);
+        g2d.fillRect(box.x, box.y, box.width - 1, box.height - 1);
+
+        g2d.setColor(Color.DARK_GRAY);
+        g2d.drawRect(box.x, box.y, box.width - 1, box.height - 1);
+
+        int textX = box.x + LEGEND_PADDING;
+        int currentY = box.y + LEGEND_PADDING + fm.getAscent();
+
+        for (PlottableFunction func : functions) {
+            g2d.setColor(func.color());
+            g2d.drawString(func.name(), textX, currentY);
+            currentY += fm.getHeight() + LEGEND_LINE_SPACING;
+        }
+        for (PlaneCurve curve : curves) {
+            g2d.setColor(curve.color());
+            g2d.drawString(curve.name(), textX, currentY);
+            currentY += fm.getHeight() + LEGEND_LINE_SPACING;
+        }
+        for (DataSeries series : dataSeries) {
+            g2d.setColor(series.getColor());
+            g2d.drawString(series.getName(), textX, currentY);
+            currentY += fm.getHeight() + LEGEND_LINE_SPACING;
+        }
+    }
+
+    void drawTrackedPoints(Graphics2D g2d, int width, int height, Viewport viewport, double xScale, double yScale,
+                                   List<PlottableFunction> functions, TrackedPoints points) {
+        if (points.isEmpty()) return;
+
+        double mathX = points.getX();
+        for (int i = 0; i < functions.size() && i < points.getCount(); i++) {
+            PlottableFunction func = functions.get(i);
+            double mathY = points.y(i);
+
+            if (!Double.isFinite(mathY)) continue;
+
+            if (mathX < viewport.xMin() || mathX > viewport.xMax() || mathY < viewport.yMin() || mathY > viewport.yMax()) continue;
+
+            int pixelX = PADDING + (int) ((mathX - viewport.xMin()) * xScale);
+            int pixelY = height - PADDING - (int) ((mathY - viewport.yMin()) * yScale);
+
+            g2d.setColor(func.color());
+            g2d.fillOval(pixelX - 5, pixelY - 5, 10, 10);
+            if (i == points.getFeatureCurve()) {
+                g2d.setStroke(CROSSHAIR_STROKE);
+                g2d.drawOval(pixelX - 9, pixelY - 9, 18, 18);
+            }
+
+            if (i == 0) {
+                g2d.setColor(CROSSHAIR_COLOR);
+                g2d.setStroke(CROSSHAIR_STROKE);
+                g2d.drawLine(pixelX, PADDING, pixelX, height - PADDING);
+                g2d.drawLine(PADDING, pixelY, width - PADDING, pixelY);
+            }
+        }
+    }
+
+    void drawFeaturePoints(Graphics2D g2d, int height, Viewport viewport, double xScale, double yScale,
+                           List<PlottableFunction> functions, List<FeaturePoint> features) {
+        if (features.isEmpty()) return;
+
+        int r = MARKER_RADIUS;
+        int[] xs = new int[4];
+        int[] ys = new int[4];
+        g2d.setStroke(MARKER_STROKE);
+        for (FeaturePoint feature : features) {
+            if (feature.curve() >= functions.size()) continue;
+            if (feature.x() < viewport.xMin() || feature.x() > viewport.xMax() || feature.y() < viewport.yMin() || feature.y() > viewport.yMax()) continue;
+
+            int px = PADDING + (int) Math.round((feature.x() - viewport.xMin()) * xScale);
+            int py = height - PADDING - (int) Math.round((feature.y() - viewport.yMin()) * yScale);
+            Color color = functions.get(feature.curve()).color();
+
+            switch (feature.kind()) {
+                case ROOT -> {
+                    g2d.setColor(Color.WHITE);
+                    g2d.fillOval(px - r, py - r, 2 * r, 2 * r);
+                    g2d.setColor(color);
+                    g2d.drawOval(px - r, py - r, 2 * r, 2 * r);
+                }
+                case MAXIMUM, MINIMUM -> {
+                    int direction = feature.kind() == CurveFeature.MAXIMUM ? -1 : 1;
+                    xs[0] = px - r;
+                    ys[0] = py - direction * r;
+                    xs[1] = px + r;
+                    ys[1] = py - direction * r;
+                    xs[2] = px;
+                    ys[2] = py + direction * r;
+                    g2d.setColor(color);
+                    g2d.fillPolygon(xs, ys, 3);
+                }
+                case INFLECTION -> {
+                    xs[0] = px;
+                    ys[0] = py - r;
+                    xs[1] = px + r;
+                    ys[1] = py;
+                    xs[2] = px;
+                    ys[2] = py + r;
+                    xs[3] = px - r;
+                    ys[3] = py;
+                    g2d.setColor(Color.WHITE);
+                    g2d.fillPolygon(xs, ys, 4);
+                    g2d.setColor(color);
+                    g2d.drawPolygon(xs, ys, 4);
+                }
+                case INTERSECTION -> {
+                    g2d.setColor(INTERSECTION_COLOR);
+                    g2d.drawLine(px - r, py - r, px + r, py + r);
+                    g2d.drawLine(px - r, py + r, px + r, py - r);
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void drawAxes(Graphics2D g2d, int width, int height, int originX, int originY) {
+        g2d.setColor(Color.BLACK);
+        g2d.setStroke(AXIS_STROKE);
+
+        g2d.drawLine(PADDING, originY, width - PADDING, originY);
+        g2d.drawLine(originX, PADDING, originX, height - PADDING);
+
+        g2d.setFont(AXIS_FONT);
+        g2d.drawString("X", width - PADDING, originY - 5);
+        g2d.drawString("Y", originX + 5, PADDING);
+    }
+
+    void drawGrid(Graphics2D g2d, int width, int height, Viewport viewport, int originX, int originY, double xScale, double yScale) {
+        g2d.setColor(GRID_COLOR);
+        g2d.setStroke(GRID_STROKE);
+        g2d.setFont(GRID_FONT);
+
+        double xMin = viewport.xMin();
+        double xMax = viewport.xMax();
+        double yMin = viewport.yMin();
+        double yMax = viewport.yMax();
+
+        double xRange = xMax - xMin;
+        double yRange = yMax - yMin;
+        double xStep = Math.pow(10, Math.floor(Math.log10(xRange)) - 1);
+        double yStep = Math.pow(10, Math.floor(Math.log10(yRange)) - 1);
+
+        if (xRange / xStep > 20) xStep *= 5;
+        else if (xRange / xStep > 10) xStep *= 2;
+        if (yRange / yStep > 20) yStep *= 5;
+        else if (yRange / yStep > 10) yStep *= 2;
+
+        for (long k = (long) Math.floor(xMin / xStep); k * xStep <= xMax; k++) {
+            if (k == 0) continue;
+            double x = k * xStep;
+            int px = PADDING + (int) ((x - xMin) * xScale);
+            g2d.drawLine(px, PADDING, px, height - PADDING);
+            g2d.drawString(tickLabel(x), px + 2, originY - 2);
+        }
+
+        for (long k = (long) Math.floor(yMin / yStep); k * yStep <= yMax; k++) {
+            if (k == 0) continue;
+            double y = k * yStep;
+            int py = height - PADDING - (int) ((y - yMin) * yScale);
+            g2d.drawLine(PADDING, py, width - PADDING, py);
+            g2d.drawString(tickLabel(y), originX + 2, py - 2);
+        }
+    }
+
+    private String tickLabel(double value) {
+        String label = tickLabels.get(value);
+        if (label == null) {
+            if (tickLabels.size() >= MAX_CACHED_LABELS) tickLabels.clear();
+            label = String.format("%.2g", value);
+            tickLabels.put(value, label);
+        }
+        return label;
+    }
+}
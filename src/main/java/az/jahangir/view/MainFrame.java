@@ -12,8 +12,14 @@ public class MainFrame extends JFrame {
     private final JTextField functionField;
     private final JButton plotButton;
     private final JButton resetButton;
+    private final JButton saveButton;
+    private final JButton openButton;
+    private final JButton importButton;
+    private final JButton clearDataButton;
     private final JLabel statusLabel;
     private final JCheckBox derivativeCheckBox;
+    private final JCheckBox secondDerivativeCheckBox;
+    private final JCheckBox featuresCheckBox;
 
     public MainFrame(GraphModel model) {
         this.graphPanel = new GraphPanel(model);
@@ -28,14 +34,32 @@ public class MainFrame extends JFrame {
 
         JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         derivativeCheckBox = new JCheckBox("Show f'(x)", true);
+        secondDerivativeCheckBox = new JCheckBox("Show f''(x)", false);
+        featuresCheckBox = new JCheckBox("Mark features", true);
+        featuresCheckBox.setToolTipText("Mark roots, extrema, inflection points and intersections in view");
         functionField = new JTextField("x^2", 25);
+        functionField.setToolTipText("Separate several functions with ';', e.g. sin(x); cos(x); x^2");
         plotButton = new JButton("Plot");
         resetButton = new JButton("Reset");
+        saveButton = new JButton("Save...");
+        saveButton.setToolTipText("Save the plotted curves as precomputed samples");
+        openButton = new JButton("Open...");
+        openButton.setToolTipText("Load previously saved samples without re-evaluating them");
+        importButton = new JButton("Import data...");
+        importButton.setToolTipText("Overlay a CSV (x, y1, y2, ...) or sample file dataset");
+        clearDataButton = new JButton("Clear data");
+        clearDataButton.setEnabled(false);
         controlPanel.add(new JLabel("f(x) = "));
         controlPanel.add(functionField);
         controlPanel.add(plotButton);
         controlPanel.add(resetButton);
+        controlPanel.add(saveButton);
+        controlPanel.add(openButton);
+        controlPanel.add(importButton);
+        controlPanel.add(clearDataButton);
         controlPanel.add(derivativeCheckBox);
+        controlPanel.add(secondDerivativeCheckBox);
+        controlPanel.add(featuresCheckBox);
 
         statusLabel = new JLabel("Ready");
         statusLabel.setBorder(new EmptyBorder(0, 5, 0, 0));
@@ -52,6 +76,14 @@ public class MainFrame extends JFrame {
         return derivativeCheckBox;
     }
 
+    public JCheckBox getSecondDerivativeCheckBox() {
+        return secondDerivativeCheckBox;
+    }
+
+    public JCheckBox getFeaturesCheckBox() {
+        return featuresCheckBox;
+    }
+
     public JTextField getFunctionField() {
         return functionField;
     }
@@ -64,6 +96,22 @@ public class MainFrame extends JFrame {
         return resetButton;
     }
 
+    public JButton getSaveButton() {
+        return saveButton;
+    }
+
+    public JButton getOpenButton() {
+        return openButton;
+    }
+
+    public JButton getImportButton() {
+        return importButton;
+    }
+
+    public JButton getClearDataButton() {
+        return clearDataButton;
+    }
+
     public JLabel getStatusLabel() {
         return statusLabel;
     }
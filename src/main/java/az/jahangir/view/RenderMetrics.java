@@ -0,0 +1,251 @@
+package az.jahangir.view;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RenderMetrics implements RenderMetricsMXBean {
+
+    public static final String OBJECT_NAME = "az.jahangir:type=RenderMetrics";
+
+    private static final long[] LATENCY_BUCKETS_MILLIS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, Long.MAX_VALUE};
+
+    public enum Phase {
+        GRID,
+        SAMPLING,
+        PATH,
+        STROKE,
+        DATA,
+        TRACKING,
+        LEGEND
+    }
+
+    public record FrameTiming(long[] phaseNanos, long totalNanos, long evaluations, int samples, boolean preview) {
+
+        public double millis(Phase phase) {
+            return phaseNanos[phase.ordinal()] / 1e6;
+        }
+
+        public double totalMillis() {
+            return totalNanos / 1e6;
+        }
+    }
+
+    private final LongAdder framesRendered = new LongAdder();
+    private final LongAdder previewFrames = new LongAdder();
+    private final LongAdder framesCancelled = new LongAdder();
+    private final LongAdder requestsCoalesced = new LongAdder();
+    private final LongAdder eventsCoalesced = new LongAdder();
+    private final LongAdder framesDropped = new LongAdder();
+    private final LongAdder totalFrameNanos = new LongAdder();
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS_MILLIS.length);
+    private final AtomicLongArray lastLayerNanos = new AtomicLongArray(Phase.values().length);
+    private volatile FrameTiming lastFrame;
+    private final AtomicLong timeToFirstFrameMillis = new AtomicLong(-1);
+    private final long createdNanos = System.nanoTime();
+
+    public boolean register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (JMException | SecurityException ex) {
+            return false;
+        }
+    }
+
+    public FrameTiming getLastFrame() {
+        return lastFrame;
+    }
+
+    public void recordFrame(FrameTiming timing) {
+        lastFrame = timing;
+        framesRendered.increment();
+        totalFrameNanos.add(timing.totalNanos());
+        if (timing.preview()) {
+            previewFrames.increment();
+        }
+    }
+
+    public void recordLayer(Phase phase, long nanos) {
+        lastLayerNanos.set(phase.ordinal(), nanos);
+    }
+
+    public double lastPhaseMillis(Phase phase) {
+        FrameTiming frame = lastFrame;
+        long nanos = lastLayerNanos.get(phase.ordinal());
+        return (frame == null ? nanos : nanos + frame.phaseNanos()[phase.ordinal()]) / 1e6;
+    }
+
+    public boolean recordFirstFrame() {
+        long millis = ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toMillis())
+                .orElseGet(() -> (System.nanoTime() - createdNanos) / 1_000_000);
+        return timeToFirstFrameMillis.compareAndSet(-1, millis);
+    }
+
+    public void recordCancelled() {
+        framesCancelled.increment();
+    }
+
+    public void recordCoalesced() {
+        requestsCoalesced.increment();
+    }
+
+    public void recordEventCoalesced() {
+        eventsCoalesced.increment();
+    }
+
+    public void recordDropped() {
+        framesDropped.increment();
+    }
+
+    public void recordLatency(long nanos) {
+        long millis = nanos / 1_000_000;
+        int bucket = 0;
+        while (millis >= LATENCY_BUCKETS_MILLIS[bucket]) {
+            bucket++;
+        }
+        latencyHistogram.incrementAndGet(bucket);
+    }
+
+    @Override
+    public long getFramesRendered() {
+        return framesRendered.sum();
+    }
+
+    @Override
+    public long getPreviewFrames() {
+        return previewFrames.sum();
+    }
+
+    @Override
+    public long getFramesCancelled() {
+        return framesCancelled.sum();
+    }
+
+    @Override
+    public long getRequestsCoalesced() {
+        return requestsCoalesced.sum();
+    }
+
+    @Override
+    public long getEventsCoalesced() {
+        return eventsCoalesced.sum();
+    }
+
+    @Override
+    public long getFramesDropped() {
+        return framesDropped.sum();
+    }
+
+    @Override
+    public long getTimeToFirstFrameMillis() {
+        return timeToFirstFrameMillis.get();
+    }
+
+    @Override
+    public double getLastFrameMillis() {
+        FrameTiming frame = lastFrame;
+        return frame == null ? 0 : frame.totalMillis();
+    }
+
+    @Override
+    public double getMeanFrameMillis() {
+        long frames = framesRendered.sum();
+        return frames == 0 ? 0 : totalFrameNanos.sum() / 1e6 / frames;
+    }
+
+    @Override
+    public long getLastEvaluations() {
+        FrameTiming frame = lastFrame;
+        return frame == null ? 0 : frame.evaluations();
+    }
+
+    @Override
+    public int getLastSampleCount() {
+        FrameTiming frame = lastFrame;
+        return frame == null ? 0 : frame.samples();
+    }
+
+    @Override
+    public Map<String, Double> getLastPhaseMillis() {
+        Map<String, Double> phases = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            phases.put(phase.name(), lastPhaseMillis(phase));
+        }
+        return phases;
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] counts = new long[latencyHistogram.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = latencyHistogram.get(i);
+        }
+        return counts;
+    }
+
+    @Override
+    public long[] getLatencyBucketUpperBoundsMillis() {
+        return LATENCY_BUCKETS_MILLIS.clone();
+    }
+
+    @Override
+    public double getLatencyP50Millis() {
+        return latencyPercentile(0.50);
+    }
+
+    @Override
+    public double getLatencyP95Millis() {
+        return latencyPercentile(0.95);
+    }
+
+    @Override
+    public double getLatencyP99Millis() {
+        return latencyPercentile(0.99);
+    }
+
+    private double latencyPercentile(double percentile) {
+        long[] counts = getLatencyHistogram();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == counts.length - 1 ? Double.POSITIVE_INFINITY : LATENCY_BUCKETS_MILLIS[i];
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public void reset() {
+        framesRendered.reset();
+        previewFrames.reset();
+        framesCancelled.reset();
+        requestsCoalesced.reset();
+        eventsCoalesced.reset();
+        framesDropped.reset();
+        totalFrameNanos.reset();
+        for (int i = 0; i < latencyHistogram.length(); i++) {
+            latencyHistogram.set(i, 0);
+        }
+        for (int i = 0; i < lastLayerNanos.length(); i++) {
+            lastLayerNanos.set(i, 0);
+        }
+        lastFrame = null;
+    }
+}
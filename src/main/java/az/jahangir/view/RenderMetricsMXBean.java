@@ -0,0 +1,42 @@
+package az.jahangir.view;
+
+import java.util.Map;
+
+public interface RenderMetricsMXBean {
+
+    long getFramesRendered();
+
+    long getPreviewFrames();
+
+    long getFramesCancelled();
+
+    long getRequestsCoalesced();
+
+    long getEventsCoalesced();
+
+    long getFramesDropped();
+
+    long getTimeToFirstFrameMillis();
+
+    double getLastFrameMillis();
+
+    double getMeanFrameMillis();
+
+    long getLastEvaluations();
+
+    int getLastSampleCount();
+
+    Map<String, Double> getLastPhaseMillis();
+
+    long[] getLatencyHistogram();
+
+    long[] getLatencyBucketUpperBoundsMillis();
+
+    double getLatencyP50Millis();
+
+    double getLatencyP95Millis();
+
+    double getLatencyP99Millis();
+
+    void reset();
+}
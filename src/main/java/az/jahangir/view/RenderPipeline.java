@@ -0,0 +1,109 @@
+package az.jahangir.view;
+
+import javax.swing.SwingUtilities;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class RenderPipeline {
+
+    private final GraphRenderer renderer;
+    private final RenderMetrics metrics;
+    private final Consumer<RenderedFrame> frameConsumer;
+    private final ExecutorService executor;
+    private final AtomicLong generation = new AtomicLong();
+    private final BlockingQueue<BufferedImage> recycledFrames = new ArrayBlockingQueue<>(3);
+    private Future<?> inFlight;
+
+    public RenderPipeline(GraphRenderer renderer, RenderMetrics metrics, Consumer<RenderedFrame> frameConsumer) {
+        this.renderer = renderer;
+        this.metrics = metrics;
+        this.frameConsumer = frameConsumer;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "graph-renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void request(FrameRequest request) {
+        if (request.width() <= 0 || request.height() <= 0) return;
+
+        long requestedAt = System.nanoTime();
+        long requestGeneration = generation.incrementAndGet();
+        if (inFlight != null && !inFlight.isDone()) {
+            metrics.recordCoalesced();
+            inFlight.cancel(false);
+        }
+        inFlight = executor.submit(() -> renderFrame(request, requestGeneration, requestedAt));
+    }
+
+    public void recycle(BufferedImage frame) {
+        if (frame != null) {
+            recycledFrames.offer(frame);
+        }
+    }
+
+    private void renderFrame(FrameRequest request, long requestGeneration, long requestedAt) {
+        GraphRenderer.Result result = renderAndPublish(request, requestGeneration, true, requestedAt);
+        if (result == GraphRenderer.Result.PREVIEW) {
+            renderAndPublish(request, requestGeneration, false, requestedAt);
+        }
+    }
+
+    private GraphRenderer.Result renderAndPublish(FrameRequest request, long requestGeneration, boolean previewOnly, long requestedAt) {
+        if (isStale(requestGeneration)) return GraphRenderer.Result.CANCELLED;
+
+        BufferedImage frame = acquireFrame(request.width(), request.height());
+        Graphics2D g2d = frame.createGraphics();
+        GraphRenderer.Result result;
+        try {
+            g2d.setComposite(AlphaComposite.Clear);
+            g2d.fillRect(0, 0, request.width(), request.height());
+            g2d.setComposite(AlphaComposite.SrcOver);
+            result = renderer.renderCurves(g2d, request, () -> isStale(requestGeneration), previewOnly);
+        } finally {
+            g2d.dispose();
+        }
+
+        if (result == GraphRenderer.Result.CANCELLED) {
+            recycle(frame);
+            return result;
+        }
+        RenderedFrame rendered = new RenderedFrame(frame, request.viewport(), request.functions(), renderer.copySamples(request.functions().size()));
+
+        SwingUtilities.invokeLater(() -> {
+            if (isStale(requestGeneration)) {
+                metrics.recordDropped();
+                recycle(frame);
+            } else {
+                if (previewOnly) {
+                    metrics.recordLatency(System.nanoTime() - requestedAt);
+                }
+                frameConsumer.accept(rendered);
+            }
+        });
+        return result;
+    }
+
+    private boolean isStale(long requestGeneration) {
+        return generation.get() != requestGeneration;
+    }
+
+    private BufferedImage acquireFrame(int width, int height) {
+        BufferedImage frame;
+        while ((frame = recycledFrames.poll()) != null) {
+            if (frame.getWidth() == width && frame.getHeight() == height) {
+                return frame;
+            }
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+}
@@ -0,0 +1,11 @@
+package az.jahangir.view;
+
+import az.jahangir.model.AnchoredViewport;
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.SampleBuffer;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+public record RenderedFrame(BufferedImage image, AnchoredViewport viewport, List<PlottableFunction> functions, List<SampleBuffer> samples) {
+}
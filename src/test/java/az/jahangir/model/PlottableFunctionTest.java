@@ -0,0 +1,81 @@
+package az.jahangir.model;
+
+import az.jahangir.service.EvaluationBackend;
+import az.jahangir.service.FunctionParserService;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlottableFunctionTest {
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final int SAMPLES = 750;
+    private static final int WARMUP_FRAMES = 20_000;
+    private static final int MEASURED_FRAMES = 1_000;
+
+    @Test
+    void batchEvaluationMatchesScalarEvaluation() {
+        PlottableFunction function = new PlottableFunction("f", Color.BLUE,
+                FunctionParserService.compile("sin(x) * x^2 - log(abs(x) + 1)", EvaluationBackend.COMPILED));
+        double[] xs = grid(-10, 10);
+        double[] ys = new double[SAMPLES];
+
+        function.evaluate(xs, ys);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            assertEquals(function.evaluate(xs[i]), ys[i]);
+        }
+    }
+
+    @Test
+    void batchEvaluationMapsFailuresToNaN() {
+        PlottableFunction function = new PlottableFunction("f", Color.BLUE, x -> {
+            if (x < 0) throw new ArithmeticException("negative");
+            return Math.sqrt(x);
+        });
+        double[] xs = {-1, 0, 4};
+        double[] ys = new double[3];
+
+        function.evaluate(xs, ys);
+
+        assertTrue(Double.isNaN(ys[0]));
+        assertEquals(0, ys[1]);
+        assertEquals(2, ys[2]);
+    }
+
+    @Test
+    void batchEvaluationDoesNotAllocatePerFrame() {
+        PlottableFunction function = new PlottableFunction("f", Color.BLUE,
+                FunctionParserService.compile("sin(x) * x^2 - log(abs(x) + 1)", EvaluationBackend.COMPILED));
+        double[] xs = grid(-10, 10);
+        double[] ys = new double[SAMPLES];
+
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            function.evaluate(xs, ys, SAMPLES);
+        }
+        long before = allocatedBytes();
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++) {
+            function.evaluate(xs, ys, SAMPLES);
+        }
+        long allocated = allocatedBytes() - before;
+
+        assertEquals(0, allocated, "bytes allocated over " + MEASURED_FRAMES + " frames");
+    }
+
+    private static double[] grid(double min, double max) {
+        double[] xs = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            xs[i] = min + (max - min) * i / (SAMPLES - 1);
+        }
+        return xs;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+}
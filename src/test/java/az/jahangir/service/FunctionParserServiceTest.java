@@ -0,0 +1,133 @@
+package az.jahangir.service;
+
+import org.junit.jupiter.api.Test;
+
+import az.jahangir.model.DoubleDoubleFunction;
+import az.jahangir.model.Interval;
+import az.jahangir.model.IntervalFunction;
+import az.jahangir.service.expression.ExpressionBatch;
+import az.jahangir.service.expression.ExpressionCompiler;
+import az.jahangir.service.expression.ExpressionTreeBuilder;
+import az.jahangir.service.expression.SymbolicDifferentiator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FunctionParserServiceTest {
+
+    private static final String NESTED = "log(sin(x)^2)^tan(x)";
+    private static final String NESTED_REAL = "log(3 + sin(x)^2)^tan(x)";
+    private static final int MAX_ORDER = 4;
+    private static final double MAX_GROWTH_PER_ORDER = 4;
+
+    @Test
+    void derivativeUsesTheSymbolicForm() {
+        DoubleUnaryOperator derivative = FunctionParserService.derivative("sin(x) * x", 1, EvaluationBackend.COMPILED);
+
+        for (double x = -5; x <= 5; x += 0.25) {
+            assertEquals(Math.cos(x) * x + Math.sin(x), derivative.applyAsDouble(x), 1e-14);
+        }
+    }
+
+    @Test
+    void derivativeFallsBackToFiniteDifferences() {
+        DoubleUnaryOperator derivative = FunctionParserService.derivative("x^3", 1, EvaluationBackend.INTERPRETER);
+
+        assertEquals(12, derivative.applyAsDouble(2), 1e-6);
+    }
+
+    @Test
+    void derivativeRejectsInvalidInput() {
+        for (EvaluationBackend backend : EvaluationBackend.values()) {
+            assertThrows(IllegalArgumentException.class, () -> FunctionParserService.derivative("", 1, backend));
+            assertThrows(IllegalArgumentException.class, () -> FunctionParserService.derivative("sin(x", 1, backend));
+            assertThrows(IllegalArgumentException.class, () -> FunctionParserService.derivative("y * x", 1, backend));
+        }
+    }
+
+    @Test
+    void batchedCurvesMatchTheInterpreterExactly() {
+        List<String> expressions = List.of("x / 3", "x / x", "sqrt(x) - sqrt(x)", "0 * log(x)", "(x + 1) - 1",
+                "x^3", "sin(x)^3", "(x + 0.1)^3");
+        List<DoubleUnaryOperator> compiled = FunctionParserService.compileAll(
+                expressions.stream().map(expression -> new EvaluationRequest(expression, 0)).toList(), EvaluationBackend.COMPILED);
+
+        for (int i = 0; i < expressions.size(); i++) {
+            DoubleUnaryOperator interpreted = FunctionParserService.compile(expressions.get(i), EvaluationBackend.INTERPRETER);
+            for (double x = -3; x <= 3; x += 0.0625) {
+                assertEquals(plotted(interpreted, x), plotted(compiled.get(i), x), expressions.get(i) + " at x = " + x);
+            }
+        }
+    }
+
+    @Test
+    void higherDerivativesGrowAsSharedSubexpressions() {
+        List<EvaluationRequest> requests = new ArrayList<>();
+        for (int order = 0; order <= MAX_ORDER; order++) {
+            requests.add(new EvaluationRequest(NESTED, order));
+        }
+        List<DoubleUnaryOperator> compiled = FunctionParserService.compileAll(requests, EvaluationBackend.COMPILED);
+
+        int previous = ((ExpressionBatch.Member) compiled.get(1)).batch().instructionCount(((ExpressionBatch.Member) compiled.get(1)).output());
+        for (int order = 2; order <= MAX_ORDER; order++) {
+            ExpressionBatch.Member member = (ExpressionBatch.Member) compiled.get(order);
+            int size = member.batch().instructionCount(member.output());
+            assertTrue(size <= MAX_GROWTH_PER_ORDER * previous, "order " + order + " has " + size + " instructions after " + previous);
+            previous = size;
+        }
+    }
+
+    @Test
+    void derivativeScalarsMatchTheBatchAndTheExpandedTree() {
+        List<EvaluationRequest> requests = new ArrayList<>();
+        for (int order = 1; order <= 3; order++) {
+            requests.add(new EvaluationRequest(NESTED_REAL, order));
+        }
+        List<DoubleUnaryOperator> compiled = FunctionParserService.compileAll(requests, EvaluationBackend.COMPILED);
+        ExpressionBatch batch = ((ExpressionBatch.Member) compiled.get(0)).batch();
+        double[] xs = new double[64];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = 0.1 + 0.02 * i;
+        }
+        double[][] out = new double[requests.size()][xs.length];
+        batch.evaluate(xs, xs.length, out);
+
+        for (int order = 1; order <= 3; order++) {
+            DoubleUnaryOperator expanded = ExpressionCompiler.compile(
+                    SymbolicDifferentiator.differentiate(ExpressionTreeBuilder.build(NESTED_REAL, Set.of("x")), "x", order), "x");
+            DoubleUnaryOperator scalar = compiled.get(order - 1);
+            for (int i = 0; i < xs.length; i++) {
+                double value = scalar.applyAsDouble(xs[i]);
+                assertEquals(out[order - 1][i], value, "order " + order + " at x = " + xs[i]);
+                assertEquals(expanded.applyAsDouble(xs[i]), value, 1e-9 * Math.max(1, Math.abs(value)), "order " + order + " at x = " + xs[i]);
+            }
+        }
+    }
+
+    @Test
+    void boundsAndPreciseFormsKeepTheTypedExpression() {
+        IntervalFunction bounds = FunctionParserService.bounds("sqrt(x) - sqrt(x)", 0);
+        DoubleDoubleFunction precise = FunctionParserService.precise("x / x", 0);
+        double[] value = new double[2];
+
+        Interval range = bounds.apply(-2, -1);
+        precise.apply(0, 0, value);
+
+        assertTrue(range.isEmpty() || !range.contains(0));
+        assertTrue(Double.isNaN(value[0]));
+    }
+
+    private static double plotted(DoubleUnaryOperator function, double x) {
+        try {
+            return function.applyAsDouble(x);
+        } catch (ArithmeticException ex) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package az.jahangir.service.expression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DualEvaluatorTest {
+
+    private static final double RELATIVE_TOLERANCE = 1e-12;
+
+    @Test
+    void sine() {
+        assertDerivative("sin(x)", Math::cos, -10, 10);
+        assertDerivative("sin(3 * x^2)", x -> 6 * x * Math.cos(3 * x * x), -3, 3);
+    }
+
+    @Test
+    void exponential() {
+        assertDerivative("exp(x)", Math::exp, -20, 20);
+        assertDerivative("exp(-x^2 / 2)", x -> -x * Math.exp(-x * x / 2), -6, 6);
+    }
+
+    @Test
+    void logarithm() {
+        assertDerivative("log(x)", x -> 1 / x, 1e-3, 100);
+        assertDerivative("log(x^2 + 1)", x -> 2 * x / (x * x + 1), -50, 50);
+    }
+
+    @Test
+    void powerWithVariableExponent() {
+        assertDerivative("x^x", x -> Math.pow(x, x) * (Math.log(x) + 1), 0.05, 5);
+        assertDerivative("pow(x, sin(x))", x -> Math.pow(x, Math.sin(x)) * (Math.cos(x) * Math.log(x) + Math.sin(x) / x), 0.05, 10);
+        assertDerivative("2^x", x -> Math.pow(2, x) * Math.log(2), -10, 10);
+    }
+
+    @Test
+    void quotient() {
+        assertDerivative("(x^2 + 1) / (x - 3)", x -> (x * x - 6 * x - 1) / ((x - 3) * (x - 3)), -10, 2.9);
+        assertDerivative("sin(x) / x", x -> (x * Math.cos(x) - Math.sin(x)) / (x * x), 0.1, 20);
+    }
+
+    @Test
+    void tangentAndSecantNearTheirPoles() {
+        DoubleUnaryOperator tan = x -> 1 / (Math.cos(x) * Math.cos(x));
+        DoubleUnaryOperator sec = x -> Math.tan(x) / Math.cos(x);
+        DualEvaluator tangent = compile("tan(x)");
+        DualEvaluator reciprocal = compile("1 / cos(x)");
+        for (int i = 0; i <= 300; i++) {
+            double x = -1.5 + 3.0 * i / 300;
+            assertDerivativeAt("tan(x)", tangent, tan, x);
+            assertDerivativeAt("1 / cos(x)", reciprocal, sec, x);
+        }
+        for (double distance = 1e-1; distance >= 1e-9; distance /= 10) {
+            for (double x : new double[]{Math.PI / 2 - distance, Math.PI / 2 + distance, -Math.PI / 2 + distance}) {
+                assertDerivativeAt("tan(x)", tangent, tan, x);
+                    assertDerivativeAt("1 / cos(x)", reciprocal, sec, x);
+            }
+        }
+    }
+
+    @Test
+    void valueAndDerivativeComeFromOnePass() {
+        DualEvaluator evaluator = compile("x^3 - 2 * x");
+        double[] result = new double[2];
+        for (double x = -4; x <= 4; x += 0.5) {
+            evaluator.evaluate(x, result);
+            assertEquals(x * x * x - 2 * x, result[0], 1e-12);
+            assertEquals(3 * x * x - 2, result[1], 1e-12);
+        }
+    }
+
+    private static void assertDerivative(String expression, DoubleUnaryOperator exact, double from, double to) {
+        DualEvaluator evaluator = compile(expression);
+        int steps = 400;
+        for (int i = 0; i <= steps; i++) {
+            double x = from + (to - from) * i / steps;
+            assertDerivativeAt(expression, evaluator, exact, x);
+        }
+    }
+
+    private static void assertDerivativeAt(String expression, DualEvaluator evaluator, DoubleUnaryOperator exact, double x) {
+        double expected = exact.applyAsDouble(x);
+        double actual = evaluator.derivative().applyAsDouble(x);
+        assertEquals(expected, actual, RELATIVE_TOLERANCE * Math.max(1, Math.abs(expected)), expression + " at x = " + x);
+    }
+
+    private static DualEvaluator compile(String expression) {
+        return DualEvaluator.compile(ExpressionTreeBuilder.build(expression, Set.of("x")), "x");
+    }
+}
@@ -0,0 +1,57 @@
+package az.jahangir.service.expression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpressionSimplifierTest {
+
+    @Test
+    void foldsConstantSubtrees() {
+        assertEquals(new ExpressionNode.Constant(7), simplify("3 + 2 * 2"));
+        assertEquals(new ExpressionNode.Variable("x"), simplify("x * 1 + 0"));
+    }
+
+    @Test
+    void keepsRewritesThatWouldHideUndefinedValues() {
+        DoubleUnaryOperator difference = compile("log(x) - log(x)");
+        DoubleUnaryOperator product = compile("0 * log(x)");
+        DoubleUnaryOperator quotient = compile("x / x");
+        DoubleUnaryOperator zeroOver = compile("0 / x");
+        DoubleUnaryOperator unitPower = compile("1 ^ log(x)");
+
+        assertTrue(Double.isNaN(difference.applyAsDouble(-1)));
+        assertTrue(Double.isNaN(product.applyAsDouble(-1)));
+        assertTrue(Double.isNaN(quotient.applyAsDouble(0)));
+        assertTrue(Double.isNaN(zeroOver.applyAsDouble(0)));
+        assertTrue(Double.isNaN(unitPower.applyAsDouble(-1)));
+        assertEquals(0, difference.applyAsDouble(2));
+        assertEquals(1, quotient.applyAsDouble(3));
+        assertEquals(1, unitPower.applyAsDouble(2));
+    }
+
+    @Test
+    void derivativeStaysUndefinedOutsideTheDomain() {
+        DoubleUnaryOperator derivative = ExpressionCompiler.compile(
+                SymbolicDifferentiator.differentiate(build("3 * log(x)"), "x", 1), "x");
+
+        assertTrue(Double.isNaN(derivative.applyAsDouble(-2)));
+        assertEquals(1.5, derivative.applyAsDouble(2), 1e-15);
+    }
+
+    private static ExpressionNode build(String expression) {
+        return ExpressionTreeBuilder.build(expression, Set.of("x"));
+    }
+
+    private static ExpressionNode simplify(String expression) {
+        return ExpressionSimplifier.simplify(build(expression));
+    }
+
+    private static DoubleUnaryOperator compile(String expression) {
+        return ExpressionCompiler.compile(simplify(expression), "x");
+    }
+}
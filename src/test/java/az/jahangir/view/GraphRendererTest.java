@@ -0,0 +1,104 @@
+package az.jahangir.view;
+
+import az.jahangir.model.PlottableFunction;
+import az.jahangir.model.SampleBuffer;
+import az.jahangir.model.Viewport;
+import az.jahangir.service.EvaluationBackend;
+import az.jahangir.service.FunctionParserService;
+import az.jahangir.service.SamplingEngine;
+import az.jahangir.service.TileCache;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphRendererTest {
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final Viewport VIEWPORT = new Viewport(-10, 10, -10, 10);
+    private static final int WARMUP_FRAMES = 2_000;
+    private static final int MEASURED_FRAMES = 500;
+    private static final long MAX_BYTES_PER_FRAME = 64;
+    private static final int WARMUP_RENDERS = 300;
+    private static final int MEASURED_RENDERS = 100;
+    private static final List<String> EXPRESSIONS = List.of("sin(x) * x^2", "x^3 / 20", "log(abs(x) + 1)", "cos(3 * x)");
+    // Java2D clip save/restore and the FrameTiming snapshot handed to RenderMetrics; sampling a warm frame allocates nothing.
+    private static final long MAX_FRAME_OVERHEAD_BYTES = 512;
+
+    @Test
+    void drawingACurveAllocatesAtMostATinyConstantPerFrame() {
+        GraphRenderer renderer = new GraphRenderer();
+        SampleBuffer samples = new SampleBuffer();
+        int count = 2 * (WIDTH - 2 * GraphRenderer.PADDING);
+        for (int i = 0; i < count; i++) {
+            double x = VIEWPORT.xMin() + VIEWPORT.xRange() * i / (count - 1);
+            samples.append(x, 5 * Math.sin(x));
+        }
+        double xScale = (double) (WIDTH - 2 * GraphRenderer.PADDING) / VIEWPORT.xRange();
+        double yScale = (double) (HEIGHT - 2 * GraphRenderer.PADDING) / VIEWPORT.yRange();
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        try {
+            for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+                renderer.drawSingleFunction(g2d, HEIGHT, VIEWPORT, xScale, yScale, Color.BLUE, samples);
+            }
+            long before = allocatedBytes();
+            for (int frame = 0; frame < MEASURED_FRAMES; frame++) {
+                renderer.drawSingleFunction(g2d, HEIGHT, VIEWPORT, xScale, yScale, Color.BLUE, samples);
+            }
+            long perFrame = (allocatedBytes() - before) / MEASURED_FRAMES;
+
+            assertTrue(perFrame <= MAX_BYTES_PER_FRAME, perFrame + " bytes allocated per frame");
+        } finally {
+            g2d.dispose();
+        }
+    }
+
+    @Test
+    void warmFrameAllocatesWithinItsBudget() {
+        List<PlottableFunction> functions = EXPRESSIONS.stream()
+                .map(expression -> new PlottableFunction(expression, Color.BLUE, FunctionParserService.compile(expression, EvaluationBackend.COMPILED)))
+                .toList();
+        ForkJoinPool pool = new ForkJoinPool(1);
+        SamplingEngine engine = new SamplingEngine(pool, new TileCache());
+        GraphRenderer renderer = new GraphRenderer(engine, new RenderMetrics());
+        FrameRequest request = new FrameRequest(WIDTH, HEIGHT, VIEWPORT, functions, List.of(), List.of(), null);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = image.createGraphics();
+
+        try {
+            for (int frame = 0; frame < WARMUP_RENDERS; frame++) {
+                renderer.renderCurves(g2d, request, () -> false, false);
+            }
+            long before = allocatedBytes();
+            for (int frame = 0; frame < MEASURED_RENDERS; frame++) {
+                renderer.renderCurves(g2d, request, () -> false, false);
+            }
+            long perFrame = (allocatedBytes() - before) / MEASURED_RENDERS;
+
+            assertEquals(0, engine.getLastEvaluationCount());
+            long budget = MAX_FRAME_OVERHEAD_BYTES + functions.size() * MAX_BYTES_PER_FRAME;
+            assertTrue(perFrame <= budget, perFrame + " bytes allocated per frame, budget " + budget);
+        } finally {
+            g2d.dispose();
+            pool.shutdown();
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+}